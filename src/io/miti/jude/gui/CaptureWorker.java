@@ -0,0 +1,157 @@
+/**
+ * @(#)CaptureWorker.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.gui;
+
+import io.miti.jude.model.Defaults;
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotCache;
+import io.miti.jude.model.SymbolTable;
+import io.miti.jude.util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.UIDefaults;
+import javax.swing.UIManager;
+
+/**
+ * Capture the UI defaults on a worker thread.  The keys are sorted
+ * first, so the rows can be published to the table model in order
+ * as each value is resolved.  When the capture completes, the
+ * snapshot is cached and shown in the table.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class CaptureWorker extends SwingWorker<Snapshot, Defaults>
+{
+  /**
+   * The table model to add the rows to.
+   */
+  private final DefaultsModel model;
+  
+  /**
+   * The class name of the look and feel.
+   */
+  private final String name;
+  
+  /**
+   * The UI defaults to capture.
+   */
+  private final UIDefaults defaults;
+  
+  
+  /**
+   * Constructor.  This must be called on the event dispatch thread,
+   * since it gets the UI defaults of the current look and feel.
+   * 
+   * @param pModel the table model to add the rows to
+   */
+  CaptureWorker(final DefaultsModel pModel)
+  {
+    model = pModel;
+    name = SnapshotCache.getCurrentName();
+    defaults = UIManager.getDefaults();
+  }
+  
+  
+  /**
+   * Enumerate and resolve the UI defaults.
+   * 
+   * @return the snapshot, or null if the capture was cancelled
+   * @see javax.swing.SwingWorker#doInBackground()
+   */
+  @Override
+  protected Snapshot doInBackground()
+  {
+    // Get the keys, sorted the same way as the Defaults objects
+    Object[] keys = defaults.keySet().toArray();
+    Arrays.sort(keys, new Comparator<Object>()
+    {
+      @Override
+      public int compare(final Object o1, final Object o2)
+      {
+        return o1.toString().compareTo(o2.toString());
+      }
+    });
+    
+    // Resolve each value and publish the row
+    List<Defaults> list = new ArrayList<Defaults>(keys.length);
+    SymbolTable symbols = new SymbolTable();
+    for (Object key : keys)
+    {
+      if (isCancelled())
+      {
+        return null;
+      }
+      
+      final Object value = defaults.get(key);
+      if (Snapshot.isCaptured(key, value))
+      {
+        Defaults def = new Defaults(key, value, symbols);
+        list.add(def);
+        publish(def);
+      }
+    }
+    
+    return new Snapshot(name, list);
+  }
+  
+  
+  /**
+   * Add a batch of rows to the table.  This runs on the event
+   * dispatch thread.
+   * 
+   * @param chunk the rows published since the last call
+   * @see javax.swing.SwingWorker#process(java.util.List)
+   */
+  @Override
+  protected void process(final List<Defaults> chunk)
+  {
+    if (!isCancelled())
+    {
+      model.addCapturedRows(chunk);
+    }
+  }
+  
+  
+  /**
+   * Cache the snapshot and show it in the table.  This runs on
+   * the event dispatch thread.
+   * 
+   * @see javax.swing.SwingWorker#done()
+   */
+  @Override
+  protected void done()
+  {
+    // If cancelled, leave the captured rows in the table, but
+    // don't cache them
+    if (isCancelled())
+    {
+      return;
+    }
+    
+    try
+    {
+      Snapshot snapshot = get();
+      SnapshotCache.put(snapshot);
+      model.setSnapshot(snapshot);
+    }
+    catch (InterruptedException e)
+    {
+      Logger.error(e);
+    }
+    catch (ExecutionException e)
+    {
+      Logger.error("Exception capturing the UI defaults: " + e.getMessage());
+    }
+  }
+}
@@ -7,21 +7,29 @@
 package io.miti.jude.gui;
 
 import io.miti.jude.model.Defaults;
+import io.miti.jude.model.FilterMode;
+import io.miti.jude.model.KeyFilter;
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotCache;
+import io.miti.jude.model.SnapshotFile;
+import io.miti.jude.model.ValueType;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
 
-import javax.swing.UIDefaults;
-import javax.swing.UIManager;
 import javax.swing.table.AbstractTableModel;
 
 /**
  * Table model.
  * 
  * @author mwallace
- * @version 1.0 */
+ * @version 1.0
+ */
 public final class DefaultsModel extends AbstractTableModel
 {
   /**
@@ -35,24 +43,58 @@ public final class DefaultsModel extends AbstractTableModel
   private static final String[] columnNames = {"Key", "Class", "Value"};
   
   /**
-   * The current row count.
+   * The snapshot of the UI defaults for the current look and feel.
    */
-  private int rowCount = 0;
+  private Snapshot snapshot = null;
+  
+  /**
+   * The rows captured so far, while a snapshot is being captured
+   * in the background.  Null if no capture is running.
+   */
+  private List<Defaults> partial = null;
+  
+  /**
+   * The categories of values to show.  If empty, all values
+   * are shown.
+   */
+  private Set<ValueType> valueTypes = EnumSet.noneOf(ValueType.class);
   
   /**
-   * The list of UI defaults.
+   * The current filter string, as entered.  Empty if there is
+   * no filter.
    */
-  private List<Defaults> list = new ArrayList<Defaults>(800);
+  private String filterText = "";
   
   /**
-   * The filtered list of indices.
+   * How the filter string matches the filter column.
    */
-  private List<Integer> filteredList = new ArrayList<Integer>(800);
+  private FilterMode filterMode = FilterMode.CONTAINS;
   
   /**
-   * Whether to use the filtered list.
+   * The column the filter is checked against.
    */
-  private boolean useFilter = false;
+  private int filterColumn = Snapshot.COLUMN_KEY;
+  
+  /**
+   * Whether the filter is valid in the filter mode.
+   */
+  private boolean filterValid = true;
+  
+  /**
+   * The column the rows are sorted by.
+   */
+  private int sortColumn = Snapshot.COLUMN_KEY;
+  
+  /**
+   * The indices (in snapshot or partial) of the rows to show,
+   * in order.
+   */
+  private int[] rows = new int[0];
+  
+  /**
+   * The number of rows to show.
+   */
+  private int rowCount = 0;
   
   
   /**
@@ -72,11 +114,6 @@ public final class DefaultsModel extends AbstractTableModel
   @Override
   public int getRowCount()
   {
-    if (useFilter)
-    {
-      return filteredList.size();
-    }
-    
     return rowCount;
   }
   
@@ -114,12 +151,21 @@ public final class DefaultsModel extends AbstractTableModel
    */
   public Defaults getDefaultsAt(final int row)
   {
-    // Get the row index to use, based on whether we're filtering
-    // or not
-    final int index = (useFilter) ? filteredList.get(row) : row;
-    
     // Get the appropriate object, based on the index
-    return list.get(index);
+    return getRow(rows[row]);
+  }
+  
+  
+  /**
+   * Return the object at the specified index in the snapshot,
+   * or in the partial list if a capture is running.
+   * 
+   * @param index the index of the row
+   * @return the Defaults object at the index
+   */
+  private Defaults getRow(final int index)
+  {
+    return (snapshot != null) ? snapshot.get(index) : partial.get(index);
   }
   
   
@@ -133,12 +179,28 @@ public final class DefaultsModel extends AbstractTableModel
   public Object getValueAt(final int rowIndex,
                            final int columnIndex)
   {
-    // Get the row index to use, based on whether we're filtering
-    // or not
-    final int index = (useFilter) ? filteredList.get(rowIndex) : rowIndex;
+    // Read the columns of the snapshot, if it has been captured
+    final int index = rows[rowIndex];
+    if (snapshot != null)
+    {
+      switch (columnIndex)
+      {
+        case 0:
+          return snapshot.getKey(index);
+        
+        case 1:
+          return snapshot.getValueClass(index);
+        
+        case 2:
+          return snapshot.getValue(index);
+        
+        default:
+          return "x";
+      }
+    }
     
     // Get the appropriate object, based on the index
-    Defaults def = list.get(index);
+    Defaults def = partial.get(index);
     switch (columnIndex)
     {
       case 0:
@@ -157,123 +219,344 @@ public final class DefaultsModel extends AbstractTableModel
   
   
   /**
-   * Initialize the table with all UI defaults.
+   * Initialize the table with all UI defaults, capturing them
+   * on the calling thread if they are not already cached.
    */
   public void initialize()
   {
     // Get the UI defaults
-    useFilter = false;
-    filteredList.clear();
-    setValueClass(0);
+    filterText = "";
+    valueTypes = EnumSet.noneOf(ValueType.class);
+    setSnapshot(SnapshotCache.getCurrent());
   }
   
   
   /**
-   * Filter the data based on the class of the value.
+   * Show the rows of a snapshot.
    * 
-   * @param classId the ID of the class of interest
+   * @param pSnapshot the snapshot to show
    */
-  public void setValueClass(final int classId)
+  public void setSnapshot(final Snapshot pSnapshot)
   {
-    // Get all of the UIDefaults
-    UIDefaults defaults = UIManager.getDefaults();
+    snapshot = pSnapshot;
+    partial = null;
+    updateRows();
+  }
+  
+  
+  /**
+   * Show the rows of a saved snapshot file, without installing
+   * its look and feel.  The file is memory-mapped, and each row
+   * is only decoded when getValueAt() first asks for it, so even
+   * a large file opens at once.
+   * 
+   * @param fileName the name of the snapshot file
+   * @throws IOException if the file can't be read, or is not
+   *                     a snapshot file
+   */
+  public void openSnapshot(final String fileName) throws IOException
+  {
+    setSnapshot(SnapshotFile.read(fileName));
+  }
+  
+  
+  /**
+   * Return the snapshot shown in the table.
+   * 
+   * @return the snapshot, or null if a capture is running
+   */
+  public Snapshot getSnapshot()
+  {
+    return snapshot;
+  }
+  
+  
+  /**
+   * Clear the table before capturing a snapshot in the background.
+   * The captured rows are added with addCapturedRows().
+   */
+  public void beginCapture()
+  {
+    snapshot = null;
+    partial = new ArrayList<Defaults>(1000);
+    updateRows();
+  }
+  
+  
+  /**
+   * Add rows from a capture running in the background.  The rows
+   * must arrive in sorted order.  Rows that match the current
+   * value classes and filter are appended to the table.
+   * 
+   * @param list the captured rows
+   */
+  public void addCapturedRows(final List<Defaults> list)
+  {
+    // Check that a capture is running
+    if (partial == null)
+    {
+      return;
+    }
     
-    // Enumerate all keys
-    list.clear();
-    Enumeration<Object> keys = defaults.keys();
-    while (keys.hasMoreElements())
+    // Make sure there is room for all of the new rows
+    if ((rowCount + list.size()) > rows.length)
     {
-      Object key = keys.nextElement();
-      Object value = defaults.get(key);
-      
-      if (shouldAdd(value, classId))
+      int[] larger = new int[Math.max(rows.length * 2, rowCount + list.size())];
+      System.arraycopy(rows, 0, larger, 0, rowCount);
+      rows = larger;
+    }
+    
+    // Add the rows, and show those that match
+    final int first = rowCount;
+    for (Defaults def : list)
+    {
+      partial.add(def);
+      if (matches(def))
+      {
+        rows[rowCount++] = partial.size() - 1;
+      }
+    }
+    
+    if (rowCount > first)
+    {
+      fireTableRowsInserted(first, rowCount - 1);
+    }
+  }
+  
+  
+  /**
+   * Return whether a row matches the value classes and filter.
+   * 
+   * @param def the row to check
+   * @return whether to show the row
+   */
+  private boolean matches(final Defaults def)
+  {
+    // Check the value classes
+    boolean match = valueTypes.isEmpty();
+    final Object value = def.getValueAsObject();
+    for (ValueType type : valueTypes)
+    {
+      if (type.matches(value))
       {
-        list.add(new Defaults(key, value));
+        match = true;
+        break;
       }
     }
     
-    // Save the number of results
-    rowCount = list.size();
+    // Check the filter
+    if (!match || (filterText.length() == 0))
+    {
+      return match;
+    }
     
-    // Sort the list
-    Collections.sort(list);
+    final String text = (filterColumn == Snapshot.COLUMN_KEY) ? def.getKey() :
+      ((filterColumn == Snapshot.COLUMN_CLASS) ? def.getValueClass() : def.getValue());
+    return (filterValid && filterMode.matches(text.toLowerCase(), getFilterText()));
   }
   
   
   /**
-   * Whether to add this value to the table.
+   * Return the filter string, ready for the filter mode: as entered
+   * for a regular expression, since case matters in escapes such
+   * as \S, and in lower case otherwise.
    * 
-   * @param value the value to check
-   * @param classId the ID of the class we're interested in
-   * @return whether to add this value to the table
+   * @return the filter string
    */
-  private static boolean shouldAdd(final Object value, final int classId)
+  private String getFilterText()
   {
-    // If 0, always add it
-    if (classId == 0)
+    return (filterMode == FilterMode.REGEX) ? filterText : filterText.toLowerCase();
+  }
+  
+  
+  /**
+   * Filter the data based on the class of the value.
+   * 
+   * @param types the categories of values to show, or an empty
+   *              set to show all values
+   */
+  public void setValueTypes(final Set<ValueType> types)
+  {
+    valueTypes = EnumSet.noneOf(ValueType.class);
+    valueTypes.addAll(types);
+    
+    // Update the table
+    updateRows();
+  }
+  
+  
+  /**
+   * Rebuild the list of rows to show, based on the class
+   * of the value and the filter string.
+   */
+  private void updateRows()
+  {
+    // Check that a pattern filter compiles
+    filterValid = true;
+    try
+    {
+      filterMode.getPattern(getFilterText());
+    }
+    catch (PatternSyntaxException e)
+    {
+      filterValid = false;
+    }
+    
+    if (snapshot == null)
+    {
+      // Check the rows captured so far, if any
+      final int size = (partial == null) ? 0 : partial.size();
+      rows = new int[Math.max(size, 100)];
+      rowCount = 0;
+      for (int i = 0; i < size; ++i)
+      {
+        if (matches(partial.get(i)))
+        {
+          rows[rowCount++] = i;
+        }
+      }
+      
+      fireTableDataChanged();
+      return;
+    }
+    
+    // Get the rows with a value of the right class, and keep
+    // those that also match the filter
+    BitSet set = snapshot.getRows(valueTypes);
+    KeyFilter.Result result = null;
+    if (!filterValid)
     {
-      return true;
+      set.clear();
     }
-    else if (value == null)
+    else if (filterText.length() > 0)
     {
-      // ClassID != 0, so skip null values
-      return false;
+      result = snapshot.getFilter(filterColumn).apply(filterMode, getFilterText());
+      set.and(result.toBitSet());
     }
     
-    switch (classId)
+    // Save the row indices, ranked for a fuzzy filter, and
+    // otherwise in the order of the sort column
+    final int size = set.cardinality();
+    int[] list = new int[size];
+    int index = 0;
+    if ((result != null) && (filterMode == FilterMode.FUZZY))
+    {
+      for (int i = 0; i < result.getCount(); ++i)
+      {
+        if (set.get(result.getRow(i)))
+        {
+          list[index++] = result.getRow(i);
+        }
+      }
+    }
+    else if (sortColumn == Snapshot.COLUMN_KEY)
     {
-      case 1: return (value instanceof String);
-      case 2: return (value instanceof java.awt.Font);
-      case 3: return (value instanceof java.awt.Color);
-      case 4: return (value instanceof javax.swing.border.Border);
-      case 5: return (value instanceof java.awt.Insets);
-      case 6: return (value instanceof javax.swing.ActionMap);
-      case 7: return (value instanceof Integer);
-      case 8: return (value instanceof javax.swing.Icon);
-      case 9: return (value instanceof java.awt.Dimension);
-      case 10: return (value instanceof Boolean);
-      case 11: return (value instanceof javax.swing.InputMap);
-      default: return false;
+      for (int row = set.nextSetBit(0); row >= 0; row = set.nextSetBit(row + 1))
+      {
+        list[index++] = row;
+      }
+    }
+    else
+    {
+      for (int row : snapshot.getOrder(sortColumn))
+      {
+        if (set.get(row))
+        {
+          list[index++] = row;
+        }
+      }
     }
+    
+    rows = list;
+    rowCount = size;
+    fireTableDataChanged();
+  }
+  
+  
+  /**
+   * Sort the rows by a column.  Rows with the same value in the
+   * column are sorted by key.  The rows captured by a running
+   * capture stay in key order.
+   * 
+   * @param column the column to sort by
+   */
+  public void setSortColumn(final int column)
+  {
+    sortColumn = column;
+    updateRows();
+  }
+  
+  
+  /**
+   * Return the column the rows are sorted by.
+   * 
+   * @return the sort column
+   */
+  public int getSortColumn()
+  {
+    return sortColumn;
   }
   
   
   /**
    * The user entered a filter.  Show only those rows whose
-   * key name contains the filter.
+   * filter column matches the filter, in the filter mode.
    * 
-   * @param filter the string to check in each key value
+   * @param filter the string to check in each row
    */
   public void setFilter(final String filter)
   {
-    // Clear out the previous list of filtered objects
-    filteredList.clear();
-    
     // If the filter is null or empty, turn off filtering
     if ((filter == null) || (filter.length() < 1))
     {
-      useFilter = false;
+      filterText = "";
     }
     else
     {
-      // The filter has a value, so turn on filtering
-      useFilter = true;
-      
-      // Iterate over the rows, checking for a match on the
-      // key and the filter string
-      final int size = list.size();
-      for (int index = 0; index < size; ++index)
-      {
-        Defaults def = list.get(index);
-        if (def.getKey().toLowerCase().contains(filter))
-        {
-          // A match was found, so add the index to the list
-          filteredList.add(Integer.valueOf(index));
-        }
-      }
+      // The filter has a value, so turn on filtering.  KeyFilter
+      // narrows a Contains or Fuzzy search to the previous matches
+      // when the filter string is extended.
+      filterText = filter;
     }
     
     // Update the table
-    fireTableDataChanged();
+    updateRows();
+  }
+  
+  
+  /**
+   * Set how the filter string matches the rows.  A fuzzy filter
+   * shows the best matches first, instead of using the sort column.
+   * 
+   * @param mode the filter mode
+   */
+  public void setFilterMode(final FilterMode mode)
+  {
+    filterMode = mode;
+    updateRows();
+  }
+  
+  
+  /**
+   * Set the column the filter is checked against.
+   * 
+   * @param column the filter column
+   */
+  public void setFilterColumn(final int column)
+  {
+    filterColumn = column;
+    updateRows();
+  }
+  
+  
+  /**
+   * Return whether the filter is valid in the filter mode.  An
+   * invalid regular expression or glob matches no rows.
+   * 
+   * @return whether the filter is valid
+   */
+  public boolean isFilterValid()
+  {
+    return filterValid;
   }
 }
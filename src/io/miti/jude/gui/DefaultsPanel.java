@@ -7,8 +7,16 @@
 package io.miti.jude.gui;
 
 import io.miti.jude.model.Defaults;
+import io.miti.jude.model.FilterMode;
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotCache;
+import io.miti.jude.model.SnapshotFile;
+import io.miti.jude.model.ValueType;
 import io.miti.jude.util.Exporter;
 import io.miti.jude.util.LAFAdmin;
+import io.miti.jude.util.Logger;
+import io.miti.jude.util.SnapshotExporter;
+import io.miti.jude.util.StartupTimer;
 import io.miti.jude.util.Utility;
 
 import java.awt.BorderLayout;
@@ -18,20 +26,27 @@ import java.awt.Point;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.event.ItemEvent;
-import java.awt.event.ItemListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
@@ -43,7 +58,12 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 
 /**
@@ -85,9 +105,29 @@ public final class DefaultsPanel extends JPanel
   private JPopupMenu lafMenu = new JPopupMenu();
   
   /**
-   * The last selected index from the Filters combo box.
+   * The value-class popup menu.
    */
-  private int selectedFilterIndex = 0;
+  private JPopupMenu typesMenu = new JPopupMenu();
+  
+  /**
+   * The button that shows the value-class popup menu.
+   */
+  private JButton btnTypes = null;
+  
+  /**
+   * The selected categories of values.  Empty means show all.
+   */
+  private Set<ValueType> selectedTypes = EnumSet.noneOf(ValueType.class);
+  
+  /**
+   * The button to cancel capturing the UI defaults.
+   */
+  private JButton btnCancel = null;
+  
+  /**
+   * The background capture of the UI defaults, if one is running.
+   */
+  private CaptureWorker worker = null;
   
   
   /**
@@ -104,6 +144,16 @@ public final class DefaultsPanel extends JPanel
     buildPopup();
     buildLAFMenu();
     
+    // Rebuild the L&F menu when the themes are loaded
+    LAFAdmin.addChangeListener(new ChangeListener()
+    {
+      public void stateChanged(final ChangeEvent e)
+      {
+        lafMenu.removeAll();
+        buildLAFMenu();
+      }
+    });
+    
     // Create the top panel and add an About button
     JPanel top = new JPanel(new BorderLayout());
     top.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
@@ -113,7 +163,7 @@ public final class DefaultsPanel extends JPanel
     // and add some fields to it
     JPanel topLeft = new JPanel();
     addLAFButton(topLeft);
-    addFilterCombo(topLeft);
+    addTypesButton(topLeft);
     
     // Add the filter label and text field
     JLabel lblFilter = new JLabel("Filter:");
@@ -122,10 +172,14 @@ public final class DefaultsPanel extends JPanel
     buildFilterListener();
     lblFilter.setLabelFor(tfFilter);
     topLeft.add(tfFilter);
+    addFilterLists(topLeft);
     
     // Add a Reset button, to clear the filter string
     addResetButton(topLeft);
     
+    // Add a Cancel button, to stop capturing the UI defaults
+    addCancelButton(topLeft);
+    
     // Add the top-left panel to top, and add top to the frame
     top.add(topLeft, BorderLayout.WEST);
     add(top, BorderLayout.NORTH);
@@ -135,6 +189,9 @@ public final class DefaultsPanel extends JPanel
     // appPanel = new JPanel(new BorderLayout());
     setBackground(Color.WHITE);
     add(new JScrollPane(table), BorderLayout.CENTER);
+    
+    // Show the UI defaults for the current look and feel
+    loadSnapshot();
   }
   
   
@@ -169,7 +226,7 @@ public final class DefaultsPanel extends JPanel
           miLook.setSelected(true);
           LAFAdmin.setByIndex(index);
           Jude.getInstance().refreshScreen();
-          handleSelectionChange(selectedFilterIndex);
+          loadSnapshot();
         }
       });
       
@@ -266,7 +323,7 @@ public final class DefaultsPanel extends JPanel
         if (row >= 0)
         {
           Defaults def = model.getDefaultsAt(row);
-          String str = Exporter.export(def.getValueAsObject(), def.getKey());
+          String str = Exporter.export(def.getExportValue(), def.getKey());
           StringSelection ss = new StringSelection(str);
           java.awt.Toolkit.getDefaultToolkit().getSystemClipboard()
               .setContents(ss, null);
@@ -296,6 +353,162 @@ public final class DefaultsPanel extends JPanel
       }
     });
     menu.add(miRowsCopy);
+    
+    // Add a menu item for exporting all rows (JSON) to a file
+    menu.addSeparator();
+    JMenuItem miExport = new JMenuItem("Export all rows (JSON) to file...");
+    miExport.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        exportSnapshot(false);
+      }
+    });
+    menu.add(miExport);
+    
+    // Add a menu item for saving all rows as a binary snapshot
+    JMenuItem miSave = new JMenuItem("Save snapshot (binary) to file...");
+    miSave.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        exportSnapshot(true);
+      }
+    });
+    menu.add(miSave);
+    
+    // Add a menu item for opening a saved binary snapshot
+    JMenuItem miOpen = new JMenuItem("Open snapshot (binary) file...");
+    miOpen.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        openSnapshot();
+      }
+    });
+    menu.add(miOpen);
+  }
+  
+  
+  /**
+   * Show the rows of a binary snapshot file chosen by the user.
+   * The rows are decoded as they are shown, so the file opens at
+   * once.  Selecting a look and feel shows its rows again.
+   */
+  private void openSnapshot()
+  {
+    // Ask for the file name
+    JFileChooser chooser = new JFileChooser();
+    if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+    {
+      return;
+    }
+    final String fileName = chooser.getSelectedFile().getPath();
+    
+    // Stop any capture, so it doesn't replace the rows
+    cancelCapture();
+    try
+    {
+      model.openSnapshot(fileName);
+      showTableTop();
+    }
+    catch (IOException e)
+    {
+      Logger.error("Exception opening " + fileName + ": " + e.getMessage());
+      JOptionPane.showMessageDialog(this,
+          "Unable to open " + fileName + ": " + e.getMessage(),
+          "Open", JOptionPane.ERROR_MESSAGE);
+    }
+  }
+  
+  
+  /**
+   * Export every row of the current snapshot, ignoring the filter,
+   * to a JSON file or a binary snapshot file chosen by the user.
+   * The file is written on a worker thread.
+   * 
+   * @param binary whether to write a binary snapshot file
+   */
+  private void exportSnapshot(final boolean binary)
+  {
+    // Check that the snapshot has been captured
+    final Snapshot snapshot = model.getSnapshot();
+    if (snapshot == null)
+    {
+      JOptionPane.showMessageDialog(this,
+          "The UI defaults are still being captured.",
+          "Export", JOptionPane.INFORMATION_MESSAGE);
+      return;
+    }
+    
+    // Ask for the file name
+    JFileChooser chooser = new JFileChooser();
+    chooser.setSelectedFile(new File(UIManager.getLookAndFeel().getName() +
+                                     (binary ? ".jud" : ".json")));
+    if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+    {
+      return;
+    }
+    final String fileName = chooser.getSelectedFile().getPath();
+    
+    // Write the file in the background
+    new SwingWorker<Boolean, Void>()
+    {
+      /**
+       * Write the file.
+       * 
+       * @return whether the file was written
+       */
+      @Override
+      protected Boolean doInBackground()
+      {
+        if (!binary)
+        {
+          return Boolean.valueOf(SnapshotExporter.export(snapshot, fileName));
+        }
+        
+        try
+        {
+          SnapshotFile.write(snapshot, fileName);
+          return Boolean.TRUE;
+        }
+        catch (IOException e)
+        {
+          Logger.error("Exception writing " + fileName + ": " + e.getMessage());
+          return Boolean.FALSE;
+        }
+      }
+      
+      
+      /**
+       * Tell the user if the file could not be written.
+       */
+      @Override
+      protected void done()
+      {
+        boolean ok = false;
+        try
+        {
+          ok = get().booleanValue();
+        }
+        catch (InterruptedException e)
+        {
+          Logger.error(e);
+        }
+        catch (ExecutionException e)
+        {
+          Logger.error("Exception exporting to " + fileName + ": " +
+                       e.getMessage());
+        }
+        
+        if (!ok)
+        {
+          JOptionPane.showMessageDialog(DefaultsPanel.this,
+              "Unable to write " + fileName,
+              "Export", JOptionPane.ERROR_MESSAGE);
+        }
+      }
+    }.execute();
   }
   
   
@@ -402,6 +615,7 @@ public final class DefaultsPanel extends JPanel
         // the first row of the table's data
         tfFilter.setText("");
         model.setFilter("");
+        showFilterState();
         showTableTop();
         tfFilter.requestFocusInWindow();
       }
@@ -410,12 +624,102 @@ public final class DefaultsPanel extends JPanel
   }
   
   
+  /**
+   * Add a Cancel button to the top panel.  It is only enabled
+   * while the UI defaults are being captured.
+   * 
+   * @param topLeft the parent panel
+   */
+  private void addCancelButton(final JPanel topLeft)
+  {
+    btnCancel = new JButton("Cancel");
+    btnCancel.setMnemonic(KeyEvent.VK_C);
+    btnCancel.setEnabled(false);
+    btnCancel.addActionListener(new ActionListener()
+    {
+      /**
+       * Handle the button getting pressed.
+       * 
+       * @param e the event
+       */
+      public void actionPerformed(final ActionEvent e)
+      {
+        cancelCapture();
+      }
+    });
+    topLeft.add(btnCancel);
+  }
+  
+  
+  /**
+   * Show the UI defaults for the current look and feel.  If they
+   * are not cached, they are captured on a worker thread, and the
+   * rows are added to the table as they are captured.
+   */
+  private void loadSnapshot()
+  {
+    // Stop any capture that is already running
+    cancelCapture();
+    
+    // Check the cache
+    Snapshot snapshot = SnapshotCache.get(SnapshotCache.getCurrentName());
+    if (snapshot != null)
+    {
+      model.setSnapshot(snapshot);
+      showTableTop();
+      return;
+    }
+    
+    // Start capturing the UI defaults
+    model.beginCapture();
+    worker = new CaptureWorker(model);
+    worker.addPropertyChangeListener(new PropertyChangeListener()
+    {
+      /**
+       * Disable the Cancel button when the capture finishes.
+       * 
+       * @param evt the event
+       */
+      @Override
+      public void propertyChange(final PropertyChangeEvent evt)
+      {
+        if (("state".equals(evt.getPropertyName())) &&
+            (SwingWorker.StateValue.DONE == evt.getNewValue()))
+        {
+          if (worker == evt.getSource())
+          {
+            worker = null;
+            btnCancel.setEnabled(false);
+            StartupTimer.phase("Captured the UI defaults");
+          }
+        }
+      }
+    });
+    btnCancel.setEnabled(true);
+    worker.execute();
+  }
+  
+  
+  /**
+   * Cancel capturing the UI defaults, if a capture is running.  The
+   * rows captured so far stay in the table.
+   */
+  private void cancelCapture()
+  {
+    if (worker != null)
+    {
+      worker.cancel(false);
+      worker = null;
+      btnCancel.setEnabled(false);
+    }
+  }
+  
+  
   /**
    * Build the table.
    */
   private void buildTable()
   {
-    model.initialize();
     table = new JTable(model)
     {
       /**
@@ -476,11 +780,75 @@ public final class DefaultsPanel extends JPanel
     ((DefaultTableCellRenderer) table.getTableHeader().
         getDefaultRenderer()).setHorizontalAlignment(SwingConstants.CENTER);
     
+    // Sort by a column when its heading is clicked
+    addHeaderListener();
+    
     // Add the pop-up menu to the table
     addTableMouseListener(table, menu);
   }
   
   
+  /**
+   * Sort the table by a column when the user clicks its heading,
+   * and mark the heading of the sort column.
+   */
+  private void addHeaderListener()
+  {
+    final JTableHeader header = table.getTableHeader();
+    final TableCellRenderer renderer = header.getDefaultRenderer();
+    header.setDefaultRenderer(new TableCellRenderer()
+    {
+      /**
+       * Return the heading, with the sort icon on the sort column.
+       * 
+       * @param tbl the table
+       * @param value the heading
+       * @param isSelected whether the cell is selected
+       * @param hasFocus whether the cell has the focus
+       * @param row the row
+       * @param column the column
+       * @return the component for the heading
+       */
+      @Override
+      public Component getTableCellRendererComponent(final JTable tbl,
+          final Object value, final boolean isSelected,
+          final boolean hasFocus, final int row, final int column)
+      {
+        Component c = renderer.getTableCellRendererComponent(tbl, value,
+            isSelected, hasFocus, row, column);
+        if (c instanceof JLabel)
+        {
+          final boolean sorted = (tbl.convertColumnIndexToModel(column) ==
+                                  model.getSortColumn());
+          ((JLabel) c).setIcon(sorted ? UIManager.getIcon("Table.ascendingSortIcon") : null);
+        }
+        
+        return c;
+      }
+    });
+    
+    header.addMouseListener(new MouseAdapter()
+    {
+      /**
+       * Sort by the column that was clicked.
+       * 
+       * @param evt the event
+       */
+      @Override
+      public void mouseClicked(final MouseEvent evt)
+      {
+        final int column = header.columnAtPoint(evt.getPoint());
+        if (column >= 0)
+        {
+          model.setSortColumn(table.convertColumnIndexToModel(column));
+          header.repaint();
+          showTableTop();
+        }
+      }
+    });
+  }
+  
+  
   /**
    * Add the listener for right-clicking on a table.
    * 
@@ -559,12 +927,75 @@ public final class DefaultsPanel extends JPanel
         }
         
         // Update the table model's contents
-        model.setFilter(str.toLowerCase());
+        model.setFilter(str);
+        showFilterState();
       }
     });
   }
   
   
+  /**
+   * Add the lists of filter modes and of columns to filter on.
+   * 
+   * @param topLeft the parent panel
+   */
+  private void addFilterLists(final JPanel topLeft)
+  {
+    // Add the list of filter modes
+    final FilterMode[] modes = FilterMode.values();
+    String[] labels = new String[modes.length];
+    for (int i = 0; i < modes.length; ++i)
+    {
+      labels[i] = modes[i].getLabel();
+    }
+    final JComboBox<String> cbMode = new JComboBox<String>(labels);
+    cbMode.setToolTipText("How the filter matches");
+    cbMode.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        model.setFilterMode(modes[cbMode.getSelectedIndex()]);
+        showFilterState();
+        showTableTop();
+      }
+    });
+    topLeft.add(cbMode);
+    
+    // Add the list of columns; the choices match the model's columns
+    final JComboBox<String> cbColumn =
+      new JComboBox<String>(new String[] {"Key", "Class", "Value"});
+    cbColumn.setToolTipText("The column to filter on");
+    cbColumn.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        model.setFilterColumn(cbColumn.getSelectedIndex());
+        showFilterState();
+        showTableTop();
+      }
+    });
+    topLeft.add(cbColumn);
+  }
+  
+  
+  /**
+   * Show the filter in red if it is not a valid pattern.
+   */
+  private void showFilterState()
+  {
+    if (model.isFilterValid())
+    {
+      tfFilter.setForeground(UIManager.getColor("TextField.foreground"));
+      tfFilter.setToolTipText(null);
+    }
+    else
+    {
+      tfFilter.setForeground(Color.RED);
+      tfFilter.setToolTipText("The filter is not a valid pattern");
+    }
+  }
+  
+  
   /**
    * Show the top row of the table.
    */
@@ -593,61 +1024,99 @@ public final class DefaultsPanel extends JPanel
   
   
   /**
-   * Add a combo-box to select a filter on the value's class type.
+   * Add a button to select one or more value classes to show.
    * 
    * @param topLeft the parent panel
    */
-  private void addFilterCombo(final JPanel topLeft)
+  private void addTypesButton(final JPanel topLeft)
   {
-    // Declare the list of strings for the combo box
-    String[] values = new String[] {"Show All",
-                                    "Show Strings",
-                                    "Show Fonts",
-                                    "Show Colors",
-                                    "Show Borders",
-                                    "Show Insets",
-                                    "Show ActionMaps",
-                                    "Show Integers",
-                                    "Show Icons",
-                                    "Show Dimensions",
-                                    "Show Booleans",
-                                    "Show InputMaps"};
-    final JComboBox<String> cbFilter = new JComboBox<String>(values);
-    cbFilter.setEditable(false);
-    cbFilter.addItemListener(new ItemListener()
+    // Add a menu item to clear the selection and show all values
+    final ValueType[] types = ValueType.values();
+    final JCheckBoxMenuItem[] items = new JCheckBoxMenuItem[types.length];
+    JMenuItem miAll = new JMenuItem("Show All");
+    miAll.addActionListener(new ActionListener()
     {
-      /**
-       * Handle an event on the combo box.
-       * 
-       * @param e the event
-       */
-      @Override
-      public void itemStateChanged(final ItemEvent e)
+      public void actionPerformed(final ActionEvent e)
       {
-        if (e.getStateChange() == ItemEvent.SELECTED)
+        for (JCheckBoxMenuItem item : items)
         {
-          selectedFilterIndex = ((JComboBox<?>) e.getSource()).getSelectedIndex();
-          handleSelectionChange(selectedFilterIndex);
+          item.setSelected(false);
         }
+        selectedTypes.clear();
+        handleSelectionChange();
       }
     });
+    typesMenu.add(miAll);
+    typesMenu.addSeparator();
     
-    // Add the combo-box and some space to the parent panel
-    topLeft.add(cbFilter);
+    // Add a check box for each category, so several can be selected
+    for (int i = 0; i < types.length; ++i)
+    {
+      final ValueType type = types[i];
+      items[i] = new JCheckBoxMenuItem("Show " + type.getLabel());
+      items[i].addActionListener(new ActionListener()
+      {
+        public void actionPerformed(final ActionEvent e)
+        {
+          if (((JCheckBoxMenuItem) e.getSource()).isSelected())
+          {
+            selectedTypes.add(type);
+          }
+          else
+          {
+            selectedTypes.remove(type);
+          }
+          handleSelectionChange();
+        }
+      });
+      typesMenu.add(items[i]);
+    }
+    
+    // Create the button to show the menu
+    btnTypes = new JButton("Show All");
+    btnTypes.setMnemonic(KeyEvent.VK_S);
+    btnTypes.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        if (typesMenu.isVisible())
+        {
+          typesMenu.setVisible(false);
+        }
+        else
+        {
+          typesMenu.show(btnTypes, 0, btnTypes.getHeight());
+        }
+      }
+    });
+    
+    // Add the button and some space to the parent panel
+    topLeft.add(btnTypes);
     topLeft.add(javax.swing.Box.createHorizontalStrut(6));
   }
   
   
   /**
-   * Handle a change in the selection of the Filters combo box.
-   * 
-   * @param selIndex the selected index from the Filters combo box
+   * Handle a change in the selected value classes.
    */
-  private void handleSelectionChange(final int selIndex)
+  private void handleSelectionChange()
   {
-    // Get the selected index from the combo box and
-    // update the data list in the model
-    model.setValueClass(selIndex);
+    // Show the selection on the button
+    if (selectedTypes.isEmpty())
+    {
+      btnTypes.setText("Show All");
+    }
+    else if (selectedTypes.size() == 1)
+    {
+      btnTypes.setText("Show " + selectedTypes.iterator().next().getLabel());
+    }
+    else
+    {
+      btnTypes.setText("Show " + selectedTypes.size() + " Types");
+    }
+    
+    // Update the data list in the model
+    model.setValueTypes(selectedTypes);
     
     // Re-apply the filter
     model.setFilter(tfFilter.getText());
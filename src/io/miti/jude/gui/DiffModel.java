@@ -0,0 +1,211 @@
+/**
+ * @(#)DiffModel.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.gui;
+
+import io.miti.jude.model.Defaults;
+import io.miti.jude.model.SnapshotDiff;
+import io.miti.jude.model.SnapshotDiff.Change;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for showing the differences between two snapshots.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class DiffModel extends AbstractTableModel
+{
+  /**
+   * The default serial version ID.
+   */
+  private static final long serialVersionUID = 1L;
+  
+  /**
+   * The names of the columns.
+   */
+  private static final String[] columnNames = {"Key", "Change", "Left", "Right"};
+  
+  /**
+   * The differences, or null if nothing has been compared.
+   */
+  private SnapshotDiff diff = null;
+  
+  /**
+   * The kind of difference to show, or null to show all.
+   */
+  private Change change = null;
+  
+  /**
+   * The indices in diff of the rows to show.
+   */
+  private int[] rows = new int[0];
+  
+  
+  /**
+   * Default constructor.
+   */
+  public DiffModel()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Returns the number of rows.
+   * 
+   * @return the number of rows
+   */
+  @Override
+  public int getRowCount()
+  {
+    return rows.length;
+  }
+  
+  
+  /**
+   * Returns the number of columns.
+   * 
+   * @return the number of columns
+   */
+  @Override
+  public int getColumnCount()
+  {
+    return columnNames.length;
+  }
+  
+  
+  /**
+   * Returns the name of the column.
+   * 
+   * @param col the column to get the name for
+   * @return the name of the specified column
+   */
+  @Override
+  public String getColumnName(final int col)
+  {
+    if ((diff != null) && (col >= 2))
+    {
+      // Show the snapshot names in the value columns
+      return (col == 2) ? diff.getLeft().getName() : diff.getRight().getName();
+    }
+    
+    return columnNames[col];
+  }
+  
+  
+  /**
+   * Retrieves a value from a row/column.
+   * 
+   * @param rowIndex the row index
+   * @param columnIndex the column index
+   * @return the value at the specified row/column
+   */
+  @Override
+  public Object getValueAt(final int rowIndex,
+                           final int columnIndex)
+  {
+    SnapshotDiff.Entry entry = diff.get(rows[rowIndex]);
+    switch (columnIndex)
+    {
+      case 0:
+        return entry.getKey();
+      
+      case 1:
+        return entry.getChange().getLabel();
+      
+      case 2:
+        return describe(entry.getLeft(), entry);
+      
+      case 3:
+        return describe(entry.getRight(), entry);
+      
+      default:
+        return "x";
+    }
+  }
+  
+  
+  /**
+   * Return the string for one side of a difference.  If the value
+   * classes differ, the class name is added.
+   * 
+   * @param def the row, or null if the key is not on this side
+   * @param entry the difference
+   * @return the string to show
+   */
+  private static String describe(final Defaults def,
+                                 final SnapshotDiff.Entry entry)
+  {
+    if (def == null)
+    {
+      return "";
+    }
+    
+    if ((entry.getChange() == Change.CHANGED) &&
+        !entry.getLeft().getValueClass().equals(entry.getRight().getValueClass()))
+    {
+      return def.getValue() + " [" + def.getValueClass() + "]";
+    }
+    
+    return def.getValue();
+  }
+  
+  
+  /**
+   * Show the differences.
+   * 
+   * @param pDiff the differences
+   */
+  public void setDiff(final SnapshotDiff pDiff)
+  {
+    diff = pDiff;
+    updateRows();
+    
+    // The value column names changed
+    fireTableStructureChanged();
+  }
+  
+  
+  /**
+   * Show only one kind of difference.
+   * 
+   * @param pChange the kind of difference, or null to show all
+   */
+  public void setChange(final Change pChange)
+  {
+    change = pChange;
+    updateRows();
+    fireTableDataChanged();
+  }
+  
+  
+  /**
+   * Rebuild the list of rows to show.
+   */
+  private void updateRows()
+  {
+    if (diff == null)
+    {
+      rows = new int[0];
+      return;
+    }
+    
+    final int size = diff.size();
+    int[] list = new int[(change == null) ? size : diff.getCount(change)];
+    int count = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      if ((change == null) || (diff.get(i).getChange() == change))
+      {
+        list[count++] = i;
+      }
+    }
+    
+    rows = list;
+  }
+}
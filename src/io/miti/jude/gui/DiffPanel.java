@@ -0,0 +1,359 @@
+/**
+ * @(#)DiffPanel.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.gui;
+
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotDiff;
+import io.miti.jude.model.SnapshotFile;
+import io.miti.jude.model.SnapshotDiff.Change;
+import io.miti.jude.util.Dumper;
+import io.miti.jude.util.LAFAdmin;
+import io.miti.jude.util.Logger;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * The panel for comparing the UI defaults of two look and feels,
+ * or of a look and feel and a saved dump (a text dump, or a
+ * binary snapshot file).
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class DiffPanel extends JPanel
+{
+  /**
+   * Default serial version ID.
+   */
+  private static final long serialVersionUID = 1L;
+  
+  /**
+   * The labels of the choices in the Show list.
+   */
+  private static final String[] showLabels =
+    {"All Changes", "Added", "Removed", "Changed"};
+  
+  /**
+   * The table model.
+   */
+  private DiffModel model = new DiffModel();
+  
+  /**
+   * The left snapshot to compare.
+   */
+  private JComboBox<String> cbLeft = null;
+  
+  /**
+   * The right snapshot to compare.
+   */
+  private JComboBox<String> cbRight = null;
+  
+  /**
+   * The files of the saved dumps added to the lists, in the
+   * order they were added.  They follow the look and feels.
+   */
+  private List<String> dumps = new ArrayList<String>(5);
+  
+  /**
+   * The Compare button.
+   */
+  private JButton btnCompare = null;
+  
+  /**
+   * The number of each kind of difference.
+   */
+  private JLabel lblSummary = new JLabel(" ");
+  
+  
+  /**
+   * Default constructor.
+   */
+  public DiffPanel()
+  {
+    super();
+    
+    // Set the layout
+    setLayout(new BorderLayout());
+    
+    // Create the top panel, with the snapshots to compare
+    JPanel top = new JPanel(new BorderLayout());
+    top.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+    JPanel topLeft = new JPanel();
+    final String[] names = LAFAdmin.getNames();
+    final int current = LAFAdmin.getDefaultIndex();
+    cbLeft = new JComboBox<String>(names);
+    cbLeft.setSelectedIndex(Math.max(0, current));
+    cbRight = new JComboBox<String>(names);
+    cbRight.setSelectedIndex((current == 0) ? Math.min(1, names.length - 1) : 0);
+    topLeft.add(new JLabel("Left:"));
+    topLeft.add(cbLeft);
+    topLeft.add(new JLabel("Right:"));
+    topLeft.add(cbRight);
+    addOpenButton(topLeft);
+    addCompareButton(topLeft);
+    addShowList(topLeft);
+    addThemeListener();
+    top.add(topLeft, BorderLayout.WEST);
+    top.add(lblSummary, BorderLayout.EAST);
+    add(top, BorderLayout.NORTH);
+    
+    // Add the table
+    JTable table = new JTable(model);
+    table.getTableHeader().setReorderingAllowed(false);
+    table.setAutoResizeMode(JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
+    table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    ((DefaultTableCellRenderer) table.getTableHeader().
+        getDefaultRenderer()).setHorizontalAlignment(SwingConstants.CENTER);
+    setBackground(Color.WHITE);
+    add(new JScrollPane(table), BorderLayout.CENTER);
+  }
+  
+  
+  /**
+   * Add the themes to the lists when they are loaded.  They are
+   * inserted after the other look and feels, before the dumps, so
+   * the selections stay the same.
+   */
+  private void addThemeListener()
+  {
+    LAFAdmin.addChangeListener(new ChangeListener()
+    {
+      public void stateChanged(final ChangeEvent e)
+      {
+        final String[] names = LAFAdmin.getNames();
+        final int first = cbLeft.getItemCount() - dumps.size();
+        for (int i = first; i < names.length; ++i)
+        {
+          cbLeft.insertItemAt(names[i], i);
+          cbRight.insertItemAt(names[i], i);
+        }
+      }
+    });
+  }
+  
+  
+  /**
+   * Add a button to open a saved text dump, and select it as
+   * the right snapshot.
+   * 
+   * @param topLeft the parent panel
+   */
+  private void addOpenButton(final JPanel topLeft)
+  {
+    JButton btnOpen = new JButton("Open Dump...");
+    btnOpen.setMnemonic(KeyEvent.VK_O);
+    btnOpen.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(DiffPanel.this) != JFileChooser.APPROVE_OPTION)
+        {
+          return;
+        }
+        
+        // Add the file to both lists
+        File file = chooser.getSelectedFile();
+        dumps.add(file.getPath());
+        final String label = "File: " + file.getName();
+        cbLeft.addItem(label);
+        cbRight.addItem(label);
+        cbRight.setSelectedIndex(cbRight.getItemCount() - 1);
+      }
+    });
+    topLeft.add(btnOpen);
+  }
+  
+  
+  /**
+   * Add the Compare button.
+   * 
+   * @param topLeft the parent panel
+   */
+  private void addCompareButton(final JPanel topLeft)
+  {
+    btnCompare = new JButton("Compare");
+    btnCompare.setMnemonic(KeyEvent.VK_M);
+    btnCompare.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        compare(cbLeft.getSelectedIndex(), cbRight.getSelectedIndex());
+      }
+    });
+    topLeft.add(btnCompare);
+  }
+  
+  
+  /**
+   * Add the list of the kinds of difference to show.
+   * 
+   * @param topLeft the parent panel
+   */
+  private void addShowList(final JPanel topLeft)
+  {
+    final JComboBox<String> cbShow = new JComboBox<String>(showLabels);
+    cbShow.addActionListener(new ActionListener()
+    {
+      public void actionPerformed(final ActionEvent e)
+      {
+        // The first choice shows all; the rest match the changes
+        final int index = cbShow.getSelectedIndex();
+        model.setChange((index <= 0) ? null : Change.values()[index - 1]);
+      }
+    });
+    topLeft.add(new JLabel("Show:"));
+    topLeft.add(cbShow);
+  }
+  
+  
+  /**
+   * Compare two snapshots on a worker thread, and show the result.
+   * A look and feel is captured here, on the event dispatch thread,
+   * and saved dumps are read by the worker.
+   * 
+   * @param left the index of the left snapshot in the lists
+   * @param right the index of the right snapshot in the lists
+   */
+  private void compare(final int left, final int right)
+  {
+    // Get the file names here, since the list may change while
+    // the worker is running
+    final String leftFile = getDumpFile(left);
+    final String rightFile = getDumpFile(right);
+    final Snapshot leftLaf;
+    final Snapshot rightLaf;
+    try
+    {
+      leftLaf = (leftFile == null) ? LAFAdmin.captureByIndex(left) : null;
+      rightLaf = (rightFile == null) ? LAFAdmin.captureByIndex(right) : null;
+    }
+    catch (ReflectiveOperationException e)
+    {
+      showError(e);
+      return;
+    }
+    catch (LinkageError e)
+    {
+      showError(e);
+      return;
+    }
+    
+    btnCompare.setEnabled(false);
+    lblSummary.setText("Comparing...");
+    new SwingWorker<SnapshotDiff, Void>()
+    {
+      /**
+       * Get both snapshots and compare them.
+       * 
+       * @return the differences
+       * @throws Exception if a snapshot can't be loaded
+       */
+      @Override
+      protected SnapshotDiff doInBackground() throws Exception
+      {
+        return new SnapshotDiff((leftFile == null) ? leftLaf : readDump(leftFile),
+                                (rightFile == null) ? rightLaf : readDump(rightFile));
+      }
+      
+      
+      /**
+       * Show the differences.
+       */
+      @Override
+      protected void done()
+      {
+        btnCompare.setEnabled(true);
+        try
+        {
+          SnapshotDiff diff = get();
+          model.setDiff(diff);
+          lblSummary.setText(diff.getCount(Change.ADDED) + " added, " +
+                             diff.getCount(Change.REMOVED) + " removed, " +
+                             diff.getCount(Change.CHANGED) + " changed");
+        }
+        catch (InterruptedException e)
+        {
+          Logger.error(e);
+        }
+        catch (ExecutionException e)
+        {
+          lblSummary.setText(" ");
+          showError(e.getCause());
+        }
+      }
+    }.execute();
+  }
+  
+  
+  /**
+   * Tell the user that the snapshots can't be compared.
+   * 
+   * @param cause the reason
+   */
+  private void showError(final Throwable cause)
+  {
+    JOptionPane.showMessageDialog(this, "Unable to compare: " + cause,
+                                  "Compare", JOptionPane.ERROR_MESSAGE);
+  }
+  
+  
+  /**
+   * Return the file of the saved dump for an entry in the lists.
+   * 
+   * @param index the index in the lists
+   * @return the file name, or null if the entry is a look and feel
+   */
+  private String getDumpFile(final int index)
+  {
+    final int lafCount = LAFAdmin.getSize();
+    return (index < lafCount) ? null : dumps.get(index - lafCount);
+  }
+  
+  
+  /**
+   * Read the snapshot in a saved dump.
+   * 
+   * @param fileName the file of the saved dump
+   * @return the snapshot
+   * @throws Exception if the snapshot can't be loaded
+   */
+  private static Snapshot readDump(final String fileName)
+    throws Exception
+  {
+    if (SnapshotFile.isSnapshotFile(fileName))
+    {
+      return SnapshotFile.read(fileName);
+    }
+    
+    return Dumper.readText(fileName);
+  }
+}
@@ -6,16 +6,23 @@
 
 package io.miti.jude.gui;
 
+import io.miti.jude.util.Dumper;
+import io.miti.jude.util.StartupTimer;
 import io.miti.jude.util.ThemeLoader;
 import io.miti.jude.util.Utility;
 import io.miti.jude.util.WindowState;
 
+import java.awt.BorderLayout;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
+import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * This is the main class for the application.
@@ -45,6 +52,12 @@ public final class Jude
    */
   private WindowState windowState = null;
   
+  /**
+   * The tabbed pane.  Each tab holds an empty panel until it is
+   * first selected, when its page is built.
+   */
+  private JTabbedPane tabs = null;
+  
   
   /**
    * Default constructor.
@@ -72,6 +85,16 @@ public final class Jude
     // Display the window.
     frame.pack();
     frame.setVisible(true);
+    StartupTimer.phase("Frame shown");
+    
+    // Build the selected tab once the frame has been painted
+    SwingUtilities.invokeLater(new Runnable()
+    {
+      public void run()
+      {
+        buildTab(tabs.getSelectedIndex());
+      }
+    });
   }
   
   
@@ -133,12 +156,63 @@ public final class Jude
     }
     else
     {
-      // Show a tabbed pane with the UI Defaults and System Properties
-      JTabbedPane tp = new JTabbedPane();
-      tp.addTab("UI Defaults", new DefaultsPanel());
-      tp.addTab("System", new SystemPanel());
-      frame.getContentPane().add(tp);
+      // Show a tabbed pane with the UI Defaults, the differences
+      // between two sets of UI Defaults, and System Properties.
+      // Each page is built when its tab is first selected.
+      tabs = new JTabbedPane();
+      tabs.addTab("UI Defaults", new JPanel(new BorderLayout()));
+      tabs.addTab("Diff", new JPanel(new BorderLayout()));
+      tabs.addTab("System", new JPanel(new BorderLayout()));
+      tabs.addChangeListener(new ChangeListener()
+      {
+        public void stateChanged(final ChangeEvent e)
+        {
+          buildTab(tabs.getSelectedIndex());
+        }
+      });
+      frame.getContentPane().add(tabs);
+    }
+  }
+  
+  
+  /**
+   * Build the page of a tab, if it has not been built.
+   * 
+   * @param index the index of the tab
+   */
+  private void buildTab(final int index)
+  {
+    if (tabs == null)
+    {
+      return;
+    }
+    
+    JPanel holder = (JPanel) tabs.getComponentAt(index);
+    if (holder.getComponentCount() > 0)
+    {
+      return;
+    }
+    
+    // Create the page
+    JComponent page;
+    switch (index)
+    {
+      case 0:
+        page = new DefaultsPanel();
+        break;
+      
+      case 1:
+        page = new DiffPanel();
+        break;
+      
+      default:
+        page = new SystemPanel();
+        break;
     }
+    
+    holder.add(page, BorderLayout.CENTER);
+    holder.revalidate();
+    StartupTimer.phase("Built the " + tabs.getTitleAt(index) + " tab");
   }
   
   
@@ -178,23 +252,39 @@ public final class Jude
   
   
   /**
-   * Entry point to the application.
+   * Entry point to the application.  If the arguments include any
+   * of the Dumper options, they are passed to Dumper; otherwise
+   * the GUI is shown.
    * 
    * @param args arguments passed to the application
    */
   public static void main(final String[] args)
   {
+    // If any of the arguments are for the dumper, write the data
+    // out without showing the GUI
+    if (Dumper.isDumpRequested(args))
+    {
+      System.exit(Dumper.run(args));
+    }
+    
+    // Time each phase of startup
+    StartupTimer.start();
+    
     // Make the application Mac-compatible
     Utility.makeMacCompatible();
     
-    // Load the properties file data
+    // Load the properties file data; this also sets up the log
     WindowState.load(PROPS_FILE_NAME);
+    StartupTimer.phase("Loaded the properties");
+    
+    // Start loading the themes; they are added to the list of
+    // look and feels when they are ready, so this overlaps with
+    // setting up the look and feel and showing the frame
+    ThemeLoader.getInstance().loadThemesInBackground();
     
     // Initialize the look and feel to the default for this OS
     Utility.initLookAndFeel();
-    
-    // Load the themes
-    ThemeLoader.getInstance().loadThemes();
+    StartupTimer.phase("Initialized the look and feel");
     
     // Check the version number
     if (!Utility.hasRequiredJVMVersion())
@@ -9,15 +9,26 @@ package io.miti.jude.model;
 /**
  * Class to encapsulate the data displayed in the table.
  * 
+ * Rows built with a SymbolTable share their strings with the other
+ * rows of the snapshot.  The key is kept as two shared parts: the
+ * prefix, up to and including the last '.' (such as "Button."),
+ * and the suffix after it (such as "background").
+ * 
  * @author mwallace
  * @version 1.0
  */
 public final class Defaults implements Comparable<Defaults>
 {
   /**
-   * The key.
+   * The start of the key, up to and including the last '.'.
+   * Empty if the key is not split.
+   */
+  private String keyPrefix = "";
+  
+  /**
+   * The rest of the key, after keyPrefix.
    */
-  private String key;
+  private String keySuffix;
   
   /**
    * The normalized class name for the value.
@@ -30,10 +41,17 @@ public final class Defaults implements Comparable<Defaults>
   private Object valueObject;
   
   /**
-   * The value for this key.
+   * The value for this key, as a string.  This is computed from
+   * valueObject the first time it is requested.
    */
   private String value;
   
+  /**
+   * The strings shared with the other rows, until the string
+   * value is computed.  Null if the strings are not shared.
+   */
+  private SymbolTable symbols;
+  
   
   /**
    * Default constructor.
@@ -54,22 +72,74 @@ public final class Defaults implements Comparable<Defaults>
   public Defaults(final String sKey, final String sValue,
                   final String sClass)
   {
-    key = sKey;
-    value = sValue;
+    this(sKey, sValue, sClass, (SymbolTable) null);
+  }
+  
+  
+  /**
+   * Constructor taking all parameters, sharing the strings with
+   * the other rows of the snapshot.
+   * 
+   * @param sKey the key
+   * @param sValue the value
+   * @param sClass the class name for the key
+   * @param pSymbols the shared strings, or null
+   */
+  public Defaults(final String sKey, final String sValue,
+                  final String sClass, final SymbolTable pSymbols)
+  {
+    setKey(sKey, pSymbols);
+    value = intern(pSymbols, sValue);
+    valueClass = intern(pSymbols, sClass);
+  }
+  
+  
+  /**
+   * Constructor taking all parameters, for a row read back from
+   * a file.
+   * 
+   * @param sKey the key
+   * @param pValue the value, rebuilt from the file, or null
+   * @param sClass the class name of the original value
+   * @param sValue the string form of the original value
+   */
+  public Defaults(final String sKey, final Object pValue,
+                  final String sClass, final String sValue)
+  {
+    keySuffix = sKey;
+    valueObject = pValue;
     valueClass = sClass;
+    value = sValue;
   }
   
   
   /**
-   * Constructor taking the original objects.
+   * Constructor taking the original objects.  The string value
+   * is not computed until getValue() is called.
    * 
    * @param pKey the key
    * @param pValue the value
    */
   public Defaults(final Object pKey, final Object pValue)
+  {
+    this(pKey, pValue, null);
+  }
+  
+  
+  /**
+   * Constructor taking the original objects, sharing the strings
+   * with the other rows of the snapshot.  The string value is not
+   * computed until getValue() is called.
+   * 
+   * @param pKey the key
+   * @param pValue the value
+   * @param pSymbols the shared strings, or null
+   */
+  public Defaults(final Object pKey, final Object pValue,
+                  final SymbolTable pSymbols)
   {
     // Save the data
-    key = pKey.toString();
+    setKey(pKey.toString(), pSymbols);
     valueObject = pValue;
     if (pValue == null)
     {
@@ -78,20 +148,81 @@ public final class Defaults implements Comparable<Defaults>
     }
     else
     {
+      // Class.getName() keeps its string, so it is already shared
       valueClass = pValue.getClass().getName();
-      value = ValueNormalizer.makeString(pValue);
+      symbols = pSymbols;
+    }
+  }
+  
+  
+  /**
+   * Save the key, split into a shared prefix and suffix if the
+   * strings are shared.
+   * 
+   * @param sKey the key
+   * @param pSymbols the shared strings, or null
+   */
+  private void setKey(final String sKey, final SymbolTable pSymbols)
+  {
+    final int dot = (pSymbols == null) ? -1 : sKey.lastIndexOf('.');
+    if (dot < 0)
+    {
+      keySuffix = intern(pSymbols, sKey);
+    }
+    else
+    {
+      keyPrefix = pSymbols.intern(sKey.substring(0, dot + 1));
+      keySuffix = pSymbols.intern(sKey.substring(dot + 1));
     }
   }
   
   
   /**
-   * Return the key.
+   * Return the shared copy of a string.
+   * 
+   * @param pSymbols the shared strings, or null
+   * @param str the string
+   * @return the shared string, or str if the strings are not shared
+   */
+  private static String intern(final SymbolTable pSymbols, final String str)
+  {
+    return (pSymbols == null) ? str : pSymbols.intern(str);
+  }
+  
+  
+  /**
+   * Return the key.  This joins the parts of the key each time, so
+   * comparisons use compareTo(), and writers use getKeyPrefix() and
+   * getKeySuffix().
    * 
    * @return the key
    */
   public String getKey()
   {
-    return key;
+    return (keyPrefix.length() == 0) ? keySuffix : keyPrefix.concat(keySuffix);
+  }
+  
+  
+  /**
+   * Return the start of the key, up to and including the last '.'.
+   * This and getKeySuffix() give the key without joining it.
+   * 
+   * @return the key prefix, which may be empty
+   */
+  public String getKeyPrefix()
+  {
+    return keyPrefix;
+  }
+  
+  
+  /**
+   * Return the rest of the key, after the prefix.
+   * 
+   * @return the key suffix
+   */
+  public String getKeySuffix()
+  {
+    return keySuffix;
   }
   
   
@@ -113,6 +244,15 @@ public final class Defaults implements Comparable<Defaults>
    */
   public String getValue()
   {
+    // Normalize the value the first time it's needed.  If two
+    // threads race here, they compute the same string.
+    if (value == null)
+    {
+      final SymbolTable table = symbols;
+      value = intern(table, ValueNormalizer.makeString(valueObject));
+      symbols = null;
+    }
+    
     return value;
   }
   
@@ -128,6 +268,25 @@ public final class Defaults implements Comparable<Defaults>
   }
   
   
+  /**
+   * Return the value to export.  This is the value object, or the
+   * string form of the value if the object is not known (such as
+   * for the borders and input maps of a row read from a file).
+   * 
+   * @return the value to export, or null if the value is null
+   */
+  public Object getExportValue()
+  {
+    if (valueObject != null)
+    {
+      return valueObject;
+    }
+    
+    final String str = getValue();
+    return str.equals(ValueNormalizer.makeString(null)) ? null : str;
+  }
+  
+  
   /**
    * Compare two instances of this class.
    * 
@@ -136,6 +295,39 @@ public final class Defaults implements Comparable<Defaults>
    */
   public int compareTo(final Defaults o)
   {
-    return key.compareTo(o.key);
+    // Rows that share the key prefix only differ in the suffix
+    if (keyPrefix == o.keyPrefix)
+    {
+      return keySuffix.compareTo(o.keySuffix);
+    }
+    
+    // Compare the keys a character at a time, without joining them
+    final int len1 = keyPrefix.length() + keySuffix.length();
+    final int len2 = o.keyPrefix.length() + o.keySuffix.length();
+    final int limit = Math.min(len1, len2);
+    for (int i = 0; i < limit; ++i)
+    {
+      final char c1 = keyCharAt(i);
+      final char c2 = o.keyCharAt(i);
+      if (c1 != c2)
+      {
+        return c1 - c2;
+      }
+    }
+    
+    return len1 - len2;
+  }
+  
+  
+  /**
+   * Return a character of the key.
+   * 
+   * @param index the index in the key
+   * @return the character at the index
+   */
+  private char keyCharAt(final int index)
+  {
+    final int len = keyPrefix.length();
+    return (index < len) ? keyPrefix.charAt(index) : keySuffix.charAt(index - len);
   }
 }
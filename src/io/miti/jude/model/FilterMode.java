@@ -0,0 +1,248 @@
+/**
+ * @(#)FilterMode.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The ways a filter string can match the text of a column.  The
+ * text is always in lower case, so every mode ignores case.
+ * 
+ * Glob and regular expression filters are compiled once, and the
+ * most recently used patterns are kept, so typing a filter does not
+ * compile the same pattern for every row or every key stroke.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public enum FilterMode
+{
+  /**
+   * The text contains the filter.
+   */
+  CONTAINS("Contains"),
+  
+  /**
+   * The whole text matches a glob, where '*' matches any run of
+   * characters and '?' matches any one character.
+   */
+  GLOB("Glob"),
+  
+  /**
+   * The text contains a match for a regular expression.
+   */
+  REGEX("Regex"),
+  
+  /**
+   * The text contains the characters of the filter, in order,
+   * but not necessarily together.  Matches are ranked by score.
+   */
+  FUZZY("Fuzzy");
+  
+  /**
+   * The number of compiled patterns to keep.
+   */
+  private static final int CACHE_SIZE = 32;
+  
+  /**
+   * The compiled patterns, keyed on the mode's ordinal and the
+   * filter, with the most recently used last.
+   */
+  private static final Map<String, Pattern> patterns =
+    new LinkedHashMap<String, Pattern>(CACHE_SIZE * 2, 0.75f, true)
+  {
+    /**
+     * The serial version ID.
+     */
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Drop the least recently used pattern when the cache is full.
+     * 
+     * @param eldest the least recently used entry
+     * @return whether to remove it
+     */
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Pattern> eldest)
+    {
+      return (size() > CACHE_SIZE);
+    }
+  };
+  
+  /**
+   * The label shown to the user.
+   */
+  private final String label;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param sLabel the label shown to the user
+   */
+  private FilterMode(final String sLabel)
+  {
+    label = sLabel;
+  }
+  
+  
+  /**
+   * Return the label shown to the user.
+   * 
+   * @return the label
+   */
+  public String getLabel()
+  {
+    return label;
+  }
+  
+  
+  /**
+   * Return the compiled pattern for a glob or regular expression
+   * filter, from the cache if it has been compiled before.
+   * 
+   * @param filter the filter string
+   * @return the pattern, or null if this mode does not use one
+   * @throws PatternSyntaxException if the filter is not valid
+   */
+  public Pattern getPattern(final String filter)
+  {
+    if ((this != GLOB) && (this != REGEX))
+    {
+      return null;
+    }
+    
+    final String cacheKey = ordinal() + filter;
+    synchronized (patterns)
+    {
+      Pattern pattern = patterns.get(cacheKey);
+      if (pattern == null)
+      {
+        final String regex = (this == GLOB) ? globToRegex(filter) : filter;
+        pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        patterns.put(cacheKey, pattern);
+      }
+      
+      return pattern;
+    }
+  }
+  
+  
+  /**
+   * Convert a glob to a regular expression.
+   * 
+   * @param glob the glob
+   * @return the regular expression
+   */
+  private static String globToRegex(final String glob)
+  {
+    StringBuilder sb = new StringBuilder(glob.length() + 10);
+    int start = 0;
+    for (int i = 0; i < glob.length(); ++i)
+    {
+      final char ch = glob.charAt(i);
+      if ((ch == '*') || (ch == '?'))
+      {
+        // Quote the literal text before the wildcard
+        if (i > start)
+        {
+          sb.append(Pattern.quote(glob.substring(start, i)));
+        }
+        sb.append((ch == '*') ? ".*" : ".");
+        start = i + 1;
+      }
+    }
+    
+    if (start < glob.length())
+    {
+      sb.append(Pattern.quote(glob.substring(start)));
+    }
+    
+    return sb.toString();
+  }
+  
+  
+  /**
+   * Return whether a string matches the filter.
+   * 
+   * @param text the text, in lower case
+   * @param filter the filter string; in lower case for the
+   *               Contains and Fuzzy modes
+   * @return whether the text matches
+   * @throws PatternSyntaxException if the filter is not valid
+   */
+  public boolean matches(final String text, final String filter)
+  {
+    switch (this)
+    {
+      case GLOB:
+        return getPattern(filter).matcher(text).matches();
+      
+      case REGEX:
+        return getPattern(filter).matcher(text).find();
+      
+      case FUZZY:
+        return (score(text, filter) >= 0);
+      
+      default:
+        return text.contains(filter);
+    }
+  }
+  
+  
+  /**
+   * Score how well a string matches a fuzzy filter.  Each character
+   * of the filter is matched to the next occurrence in the text.
+   * A character that follows the previous match, or starts a word
+   * (at the start of the text, or after a character that is not a
+   * letter or digit), scores extra; skipped characters cost a
+   * little, so tighter matches rank first.
+   * 
+   * @param text the text, in lower case
+   * @param filter the filter, in lower case
+   * @return the score, or -1 if the text does not contain the
+   *         characters of the filter in order
+   */
+  public static int score(final String text, final String filter)
+  {
+    final int len = filter.length();
+    int score = 0;
+    int pos = 0;
+    int last = -2;
+    for (int i = 0; i < len; ++i)
+    {
+      final int found = text.indexOf(filter.charAt(i), pos);
+      if (found < 0)
+      {
+        return -1;
+      }
+      
+      score += 10;
+      if (found == (last + 1))
+      {
+        score += 15;
+      }
+      else if ((found == 0) || !Character.isLetterOrDigit(text.charAt(found - 1)))
+      {
+        score += 10;
+      }
+      else if (last >= 0)
+      {
+        score -= Math.min(found - last - 1, 5);
+      }
+      
+      last = found;
+      pos = found + 1;
+    }
+    
+    // Prefer shorter text when the matches are equally good
+    return Math.max(0, score * 4 - (text.length() - len) / 8);
+  }
+}
@@ -0,0 +1,391 @@
+/**
+ * @(#)KeyFilter.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental filter on one column of a list of Defaults (usually
+ * the keys).  The strings are converted to lower case once per list,
+ * and the matching row indices are stored as primitive arrays.
+ * Filters of at least three characters are looked up in a trigram
+ * index of the strings.  Shorter filters scan the strings.  Either
+ * way, when the filter string is extended (the new filter contains
+ * the previous one), only the rows that matched the previous filter
+ * are checked again.
+ * 
+ * The other filter modes also run on the lower case strings.  Glob
+ * and regular expression filters scan every string with one compiled
+ * pattern.  Fuzzy filters rank the rows by score, and an extended
+ * fuzzy filter only scores the rows that matched the previous one.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class KeyFilter
+{
+  /**
+   * The keys, in lower case, in the same order as the source list.
+   */
+  private String[] keys = new String[0];
+  
+  /**
+   * The trigram index of the keys.
+   */
+  private TrigramIndex index = new TrigramIndex(keys);
+  
+  /**
+   * The stack of previous results, from the least specific filter
+   * (bottom) to the most specific filter (top).
+   */
+  private List<Result> history = new ArrayList<Result>(20);
+  
+  /**
+   * The mode of the last glob, regular expression or fuzzy filter.
+   */
+  private FilterMode lastMode = null;
+  
+  /**
+   * The result of the last glob, regular expression or fuzzy
+   * filter, or null.
+   */
+  private Result lastResult = null;
+  
+  
+  /**
+   * Default constructor.
+   */
+  public KeyFilter()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Load the keys to filter.  This clears out any previous
+   * results.
+   * 
+   * @param list the keys to filter, in row order
+   */
+  public void reset(final List<String> list)
+  {
+    final int size = list.size();
+    keys = new String[size];
+    for (int i = 0; i < size; ++i)
+    {
+      keys[i] = list.get(i).toLowerCase();
+    }
+    
+    index = new TrigramIndex(keys);
+    history.clear();
+    lastResult = null;
+  }
+  
+  
+  /**
+   * Return the number of keys.
+   * 
+   * @return the number of keys
+   */
+  public int size()
+  {
+    return keys.length;
+  }
+  
+  
+  /**
+   * Apply the filter and return the indices of the rows whose key
+   * contains the filter string.  The filter should already be in
+   * lower case.
+   * 
+   * @param filter the string to search for in each key
+   * @return the result of the filter
+   */
+  public Result apply(final String filter)
+  {
+    // Drop any previous results that this filter does not extend
+    int top = history.size() - 1;
+    while ((top >= 0) && (!filter.contains(history.get(top).filter)))
+    {
+      history.remove(top);
+      --top;
+    }
+    
+    // Check if the filter is unchanged
+    if ((top >= 0) && (history.get(top).filter.equals(filter)))
+    {
+      return history.get(top);
+    }
+    
+    // Look up longer filters in the index, only among the rows of
+    // the most specific previous result if there is one.  Otherwise,
+    // narrow the previous result, or check all rows if there is no
+    // previous result.
+    Result result;
+    if (filter.length() >= TrigramIndex.GRAM)
+    {
+      final int[] rows = (top >= 0) ?
+          index.search(filter, history.get(top).rows, history.get(top).count) :
+          index.search(filter);
+      result = new Result(filter, rows, rows.length);
+    }
+    else if (top >= 0)
+    {
+      result = narrow(history.get(top), filter);
+    }
+    else
+    {
+      result = scanAll(filter);
+    }
+    
+    // Save the result for the next call
+    history.add(result);
+    return result;
+  }
+  
+  
+  /**
+   * Apply a filter in any mode, and return the indices of the
+   * matching rows.  The rows are in ascending order, except for
+   * fuzzy filters, where they are ranked by score (best first),
+   * with ties in ascending order.
+   * 
+   * @param mode the filter mode
+   * @param filter the filter string; in lower case for the
+   *               Contains and Fuzzy modes
+   * @return the result of the filter
+   * @throws java.util.regex.PatternSyntaxException if the filter
+   *         is not a valid pattern
+   */
+  public Result apply(final FilterMode mode, final String filter)
+  {
+    if (mode == FilterMode.CONTAINS)
+    {
+      return apply(filter);
+    }
+    
+    // Check if the filter is unchanged
+    if ((lastResult != null) && (lastMode == mode) &&
+        lastResult.filter.equals(filter))
+    {
+      return lastResult;
+    }
+    
+    Result result;
+    if (mode == FilterMode.FUZZY)
+    {
+      // If the filter extends the last one, only its rows can match
+      final boolean extended = ((lastResult != null) &&
+          (lastMode == FilterMode.FUZZY) && filter.contains(lastResult.filter));
+      result = rank(extended ? lastResult : null, filter);
+    }
+    else
+    {
+      result = scanPattern(mode.getPattern(filter), mode == FilterMode.GLOB, filter);
+    }
+    
+    lastMode = mode;
+    lastResult = result;
+    return result;
+  }
+  
+  
+  /**
+   * Check every string against a compiled pattern.
+   * 
+   * @param pattern the pattern
+   * @param whole whether the pattern must match the whole string
+   * @param filter the filter string
+   * @return the result of the filter
+   */
+  private Result scanPattern(final Pattern pattern, final boolean whole,
+                             final String filter)
+  {
+    final int size = keys.length;
+    int[] rows = new int[size];
+    int count = 0;
+    Matcher matcher = pattern.matcher("");
+    for (int i = 0; i < size; ++i)
+    {
+      matcher.reset(keys[i]);
+      if (whole ? matcher.matches() : matcher.find())
+      {
+        rows[count++] = i;
+      }
+    }
+    
+    return new Result(filter, rows, count);
+  }
+  
+  
+  /**
+   * Score the strings against a fuzzy filter, and rank the
+   * matching rows.
+   * 
+   * @param previous the result of a fuzzy filter that this one
+   *                 extends, or null to check every row
+   * @param filter the filter string
+   * @return the result of the filter, ranked by score
+   */
+  private Result rank(final Result previous, final String filter)
+  {
+    // Pack the score (best first) and the row into one long, so
+    // sorting the longs ranks the rows with ties in row order
+    final int size = (previous == null) ? keys.length : previous.count;
+    long[] ranked = new long[size];
+    int count = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      final int row = (previous == null) ? i : previous.rows[i];
+      final int score = FilterMode.score(keys[row], filter);
+      if (score >= 0)
+      {
+        ranked[count++] = ((long) (Integer.MAX_VALUE - score) << 32) | row;
+      }
+    }
+    Arrays.sort(ranked, 0, count);
+    
+    int[] rows = new int[count];
+    for (int i = 0; i < count; ++i)
+    {
+      rows[i] = (int) ranked[i];
+    }
+    
+    return new Result(filter, rows, count);
+  }
+  
+  
+  /**
+   * Check every key for the filter.
+   * 
+   * @param filter the filter string
+   * @return the result of the filter
+   */
+  private Result scanAll(final String filter)
+  {
+    final int size = keys.length;
+    int[] rows = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      if (keys[i].contains(filter))
+      {
+        rows[count++] = i;
+      }
+    }
+    
+    return new Result(filter, rows, count);
+  }
+  
+  
+  /**
+   * Check only the rows that matched a less specific filter.
+   * 
+   * @param previous the result of the previous filter
+   * @param filter the new filter string
+   * @return the result of the filter
+   */
+  private Result narrow(final Result previous, final String filter)
+  {
+    final int size = previous.count;
+    int[] rows = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      final int row = previous.rows[i];
+      if (keys[row].contains(filter))
+      {
+        rows[count++] = row;
+      }
+    }
+    
+    return new Result(filter, rows, count);
+  }
+  
+  
+  /**
+   * The rows matching a filter string.
+   */
+  public static final class Result
+  {
+    /**
+     * The filter string.
+     */
+    private final String filter;
+    
+    /**
+     * The matching row indices, in ascending order, or ranked
+     * for a fuzzy filter.  Only the first count entries are used.
+     */
+    private final int[] rows;
+    
+    /**
+     * The number of matching rows.
+     */
+    private final int count;
+    
+    
+    /**
+     * Constructor taking all parameters.
+     * 
+     * @param sFilter the filter string
+     * @param nRows the matching row indices
+     * @param nCount the number of matching rows
+     */
+    private Result(final String sFilter, final int[] nRows, final int nCount)
+    {
+      filter = sFilter;
+      rows = nRows;
+      count = nCount;
+    }
+    
+    
+    /**
+     * Return the number of matching rows.
+     * 
+     * @return the number of matching rows
+     */
+    public int getCount()
+    {
+      return count;
+    }
+    
+    
+    /**
+     * Return the matching rows as a set.
+     * 
+     * @return a new set of the matching rows
+     */
+    public BitSet toBitSet()
+    {
+      BitSet set = new BitSet();
+      for (int i = 0; i < count; ++i)
+      {
+        set.set(rows[i]);
+      }
+      
+      return set;
+    }
+    
+    
+    /**
+     * Return the index of the matching row.
+     * 
+     * @param index the index into the matching rows
+     * @return the index of the row in the source list
+     */
+    public int getRow(final int index)
+    {
+      return rows[index];
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * @(#)MappedRows.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The rows of a memory-mapped snapshot file.  Each row is decoded
+ * from its record the first time it is requested, and then kept,
+ * so opening a file costs nothing per row, and browsing it only
+ * decodes (and only reads from disk) the rows that are shown.
+ * 
+ * Rows may be requested from more than one thread.  Two threads
+ * may decode the same row at once; both get equal rows, and one
+ * of them is kept.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class MappedRows extends AbstractList<Defaults> implements RandomAccess
+{
+  /**
+   * The file buffer.
+   */
+  private final ByteBuffer buf;
+  
+  /**
+   * The offset of the first row record.
+   */
+  private final int rowsOffset;
+  
+  /**
+   * The strings of the file.
+   */
+  private final SnapshotFile.StringTable strings;
+  
+  /**
+   * The rows decoded so far, by index.
+   */
+  private final Defaults[] rows;
+  
+  
+  /**
+   * Constructor.
+   * 
+   * @param pBuf the file buffer
+   * @param pStrings the strings of the file
+   */
+  public MappedRows(final ByteBuffer pBuf, final SnapshotFile.StringTable pStrings)
+  {
+    buf = pBuf;
+    strings = pStrings;
+    rowsOffset = buf.getInt(20);
+    rows = new Defaults[buf.getInt(8)];
+  }
+  
+  
+  /**
+   * Return the number of rows.
+   * 
+   * @return the number of rows
+   */
+  @Override
+  public int size()
+  {
+    return rows.length;
+  }
+  
+  
+  /**
+   * Return the row at the index, decoding it if this is the
+   * first request for it.
+   * 
+   * @param index the row index
+   * @return the row
+   */
+  @Override
+  public Defaults get(final int index)
+  {
+    Defaults def = rows[index];
+    if (def == null)
+    {
+      def = SnapshotFile.readRow(buf, getOffset(index), strings);
+      rows[index] = def;
+    }
+    
+    return def;
+  }
+  
+  
+  /**
+   * Return the categories of the row at the index, as a bit
+   * mask of ValueType ordinals.
+   * 
+   * @param index the row index
+   * @return the categories of the value
+   */
+  public int getTypeMask(final int index)
+  {
+    return buf.getShort(getOffset(index) + 14);
+  }
+  
+  
+  /**
+   * Return the keys of all rows, as a list that decodes only the
+   * keys.
+   * 
+   * @return the keys
+   */
+  public List<String> getKeys()
+  {
+    return getStrings(0);
+  }
+  
+  
+  /**
+   * Return the value classes of all rows, as a list that decodes
+   * only the class names.
+   * 
+   * @return the value class names
+   */
+  public List<String> getValueClasses()
+  {
+    return getStrings(4);
+  }
+  
+  
+  /**
+   * Return one string field of all rows, as a list that decodes
+   * only that field.
+   * 
+   * @param field the offset of the string ID in each record
+   * @return the strings
+   */
+  private List<String> getStrings(final int field)
+  {
+    return new AbstractList<String>()
+    {
+      /**
+       * Return the number of rows.
+       * 
+       * @return the number of rows
+       */
+      @Override
+      public int size()
+      {
+        return rows.length;
+      }
+      
+      
+      /**
+       * Return the string of the row at the index.
+       * 
+       * @param index the row index
+       * @return the string
+       */
+      @Override
+      public String get(final int index)
+      {
+        return strings.get(buf.getInt(getOffset(index) + field));
+      }
+    };
+  }
+  
+  
+  /**
+   * Return the offset of a row record in the file.
+   * 
+   * @param index the row index
+   * @return the offset of the record
+   */
+  private int getOffset(final int index)
+  {
+    if ((index < 0) || (index >= rows.length))
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rows.length);
+    }
+    
+    return rowsOffset + (index * SnapshotFile.ROW_SIZE);
+  }
+}
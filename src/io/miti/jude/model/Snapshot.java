@@ -0,0 +1,535 @@
+/**
+ * @(#)Snapshot.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.UIDefaults;
+
+/**
+ * The UI defaults for a look and feel, captured once and sorted
+ * by key.
+ * 
+ * The rows are the only copy of the data.  The orders of the rows
+ * by each column, and the rows matching a filter, are kept as int
+ * arrays of row indices, so sorting and filtering the table doesn't
+ * copy or move the rows.  For a snapshot read from a file, the keys
+ * and value classes are read from the file, so the rows are only
+ * decoded when they are used.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class Snapshot
+{
+  /**
+   * The UI defaults key that holds the class loader of a theme.
+   * It is not one of the look and feel's defaults, so it is not
+   * captured.
+   */
+  public static final String CLASS_LOADER_KEY = "ClassLoader";
+  
+  /**
+   * The index of the key column.
+   */
+  public static final int COLUMN_KEY = 0;
+  
+  /**
+   * The index of the value class column.
+   */
+  public static final int COLUMN_CLASS = 1;
+  
+  /**
+   * The index of the value column.
+   */
+  public static final int COLUMN_VALUE = 2;
+  
+  /**
+   * The class name of the look and feel.
+   */
+  private final String name;
+  
+  /**
+   * The rows, sorted by key.
+   */
+  private final List<Defaults> rows;
+  
+  /**
+   * The keys of the rows, read without decoding the rows, or null
+   * to get them from the rows.
+   */
+  private final List<String> keys;
+  
+  /**
+   * The value classes of the rows, read without decoding the rows,
+   * or null to get them from the rows.
+   */
+  private final List<String> classes;
+  
+  /**
+   * The rows sorted by each column, indexed by column.  Each
+   * order is computed the first time it is requested.
+   */
+  private final int[][] orders = new int[3][];
+  
+  /**
+   * The filter on each column, indexed by column.  Each filter
+   * is built the first time it is used.
+   */
+  private final KeyFilter[] filters = new KeyFilter[3];
+  
+  /**
+   * The rows in each value category, indexed by the ordinal
+   * of the ValueType.
+   */
+  private final BitSet[] typeRows;
+  
+  
+  /**
+   * Constructor taking the sorted rows.
+   * 
+   * @param sName the class name of the look and feel
+   * @param pRows the rows, sorted by key
+   */
+  public Snapshot(final String sName, final List<Defaults> pRows)
+  {
+    this(sName, pRows, classify(pRows));
+  }
+  
+  
+  /**
+   * Constructor taking the sorted rows and their categories, for
+   * rows whose values may not all be available as objects.
+   * 
+   * @param sName the class name of the look and feel
+   * @param pRows the rows, sorted by key
+   * @param pTypeRows the rows in each category, indexed by the
+   *                  ordinal of the ValueType
+   */
+  public Snapshot(final String sName, final List<Defaults> pRows,
+                  final BitSet[] pTypeRows)
+  {
+    this(sName, pRows, pTypeRows, null, null);
+  }
+  
+  
+  /**
+   * Constructor taking the sorted rows, their categories, and
+   * their keys and value classes, for rows that are only decoded
+   * when used.
+   * 
+   * @param sName the class name of the look and feel
+   * @param pRows the rows, sorted by key
+   * @param pTypeRows the rows in each category, indexed by the
+   *                  ordinal of the ValueType
+   * @param pKeys the keys of the rows, or null to get them from
+   *              the rows
+   * @param pClasses the value classes of the rows, or null to
+   *                 get them from the rows
+   */
+  Snapshot(final String sName, final List<Defaults> pRows,
+           final BitSet[] pTypeRows, final List<String> pKeys,
+           final List<String> pClasses)
+  {
+    name = sName;
+    rows = pRows;
+    typeRows = pTypeRows;
+    keys = pKeys;
+    classes = pClasses;
+  }
+  
+  
+  /**
+   * Build the set of rows in each value category.
+   * 
+   * @param list the rows
+   * @return the rows in each category, indexed by ordinal
+   */
+  private static BitSet[] classify(final List<Defaults> list)
+  {
+    final ValueType[] types = ValueType.values();
+    final int size = list.size();
+    BitSet[] sets = new BitSet[types.length];
+    for (int i = 0; i < types.length; ++i)
+    {
+      sets[i] = new BitSet(size);
+    }
+    
+    // Check each row against each category; a value may be
+    // in more than one category
+    for (int row = 0; row < size; ++row)
+    {
+      final Object value = list.get(row).getValueAsObject();
+      if (value == null)
+      {
+        continue;
+      }
+      
+      for (int i = 0; i < types.length; ++i)
+      {
+        if (types[i].matches(value))
+        {
+          sets[i].set(row);
+        }
+      }
+    }
+    
+    return sets;
+  }
+  
+  
+  /**
+   * Capture all of the UI defaults.
+   * 
+   * @param sName the class name of the look and feel
+   * @param defaults the UI defaults
+   * @return the snapshot of the UI defaults
+   */
+  public static Snapshot capture(final String sName, final UIDefaults defaults)
+  {
+    // Enumerate all keys
+    List<Defaults> list = new ArrayList<Defaults>(defaults.size());
+    SymbolTable symbols = new SymbolTable();
+    Enumeration<Object> keys = defaults.keys();
+    while (keys.hasMoreElements())
+    {
+      Object key = keys.nextElement();
+      Object value = defaults.get(key);
+      if (isCaptured(key, value))
+      {
+        list.add(new Defaults(key, value, symbols));
+      }
+    }
+    
+    // Sort the list
+    Collections.sort(list);
+    
+    return new Snapshot(sName, list);
+  }
+  
+  
+  /**
+   * Return whether a UI default is one of the look and feel's,
+   * and so part of a snapshot.  The class loader that LAFAdmin
+   * adds for a theme is not.
+   * 
+   * @param key the key
+   * @param value the value
+   * @return whether to capture the row
+   */
+  public static boolean isCaptured(final Object key, final Object value)
+  {
+    return !(CLASS_LOADER_KEY.equals(key) && (value instanceof ClassLoader));
+  }
+  
+  
+  /**
+   * Return the class name of the look and feel.
+   * 
+   * @return the class name of the look and feel
+   */
+  public String getName()
+  {
+    return name;
+  }
+  
+  
+  /**
+   * Return the number of rows.
+   * 
+   * @return the number of rows
+   */
+  public int size()
+  {
+    return rows.size();
+  }
+  
+  
+  /**
+   * Return the row at the specified index.
+   * 
+   * @param index the row index
+   * @return the Defaults object at the index
+   */
+  public Defaults get(final int index)
+  {
+    return rows.get(index);
+  }
+  
+  
+  /**
+   * Return the key of a row.
+   * 
+   * @param index the row index
+   * @return the key
+   */
+  public String getKey(final int index)
+  {
+    return (keys == null) ? rows.get(index).getKey() : keys.get(index);
+  }
+  
+  
+  /**
+   * Return the value class name of a row.
+   * 
+   * @param index the row index
+   * @return the value class name
+   */
+  public String getValueClass(final int index)
+  {
+    return (classes == null) ? rows.get(index).getValueClass() : classes.get(index);
+  }
+  
+  
+  /**
+   * Return the string value of a row.  A row that is decoded when
+   * used is only decoded if its value is requested.
+   * 
+   * @param index the row index
+   * @return the string value
+   */
+  public String getValue(final int index)
+  {
+    return rows.get(index).getValue();
+  }
+  
+  
+  /**
+   * Return the rows sorted by a column, with ties in key order.
+   * The order is computed once, and the same array is returned
+   * after that, so it must not be changed.
+   * 
+   * @param column the column to sort by: COLUMN_KEY, COLUMN_CLASS
+   *               or COLUMN_VALUE
+   * @return the row indices, in sorted order
+   */
+  public synchronized int[] getOrder(final int column)
+  {
+    int[] order = orders[column];
+    if (order == null)
+    {
+      switch (column)
+      {
+        case COLUMN_CLASS:
+          order = sortByClass();
+          break;
+        
+        case COLUMN_VALUE:
+          order = sortByValue();
+          break;
+        
+        default:
+          // The rows are already in key order
+          order = new int[rows.size()];
+          for (int i = 0; i < order.length; ++i)
+          {
+            order[i] = i;
+          }
+          break;
+      }
+      
+      orders[column] = order;
+    }
+    
+    return order;
+  }
+  
+  
+  /**
+   * Sort the rows by value class.  There are few distinct classes,
+   * so each row is given the ID of its class, the class names are
+   * sorted, and then the rows are placed by the rank of their class
+   * in one pass.  The pass is in key order, so ties stay in key
+   * order.
+   * 
+   * @return the row indices, in sorted order
+   */
+  private int[] sortByClass()
+  {
+    // Number the distinct class names
+    final int size = rows.size();
+    int[] classIds = new int[size];
+    Map<String, Integer> idMap = new HashMap<String, Integer>(100);
+    final List<String> names = new ArrayList<String>(100);
+    for (int row = 0; row < size; ++row)
+    {
+      final String valueClass = getValueClass(row);
+      Integer id = idMap.get(valueClass);
+      if (id == null)
+      {
+        id = Integer.valueOf(names.size());
+        idMap.put(valueClass, id);
+        names.add(valueClass);
+      }
+      classIds[row] = id.intValue();
+    }
+    
+    // Rank the class IDs by name
+    final int count = names.size();
+    Integer[] ids = new Integer[count];
+    for (int i = 0; i < count; ++i)
+    {
+      ids[i] = Integer.valueOf(i);
+    }
+    Arrays.sort(ids, new Comparator<Integer>()
+    {
+      @Override
+      public int compare(final Integer o1, final Integer o2)
+      {
+        return names.get(o1.intValue()).compareTo(names.get(o2.intValue()));
+      }
+    });
+    
+    // Find where the rows of each class start
+    int[] next = new int[count];
+    for (int id : classIds)
+    {
+      ++next[id];
+    }
+    int pos = 0;
+    for (Integer id : ids)
+    {
+      final int rowCount = next[id.intValue()];
+      next[id.intValue()] = pos;
+      pos += rowCount;
+    }
+    
+    // Place the rows
+    int[] order = new int[size];
+    for (int row = 0; row < size; ++row)
+    {
+      order[next[classIds[row]]++] = row;
+    }
+    
+    return order;
+  }
+  
+  
+  /**
+   * Sort the rows by value.  The sort is stable, and the rows
+   * start in key order, so ties stay in key order.
+   * 
+   * @return the row indices, in sorted order
+   */
+  private int[] sortByValue()
+  {
+    final int size = rows.size();
+    Integer[] sorted = new Integer[size];
+    final String[] list = new String[size];
+    for (int i = 0; i < size; ++i)
+    {
+      sorted[i] = Integer.valueOf(i);
+      list[i] = getValue(i);
+    }
+    
+    Arrays.sort(sorted, new Comparator<Integer>()
+    {
+      @Override
+      public int compare(final Integer o1, final Integer o2)
+      {
+        return list[o1.intValue()].compareTo(list[o2.intValue()]);
+      }
+    });
+    
+    int[] order = new int[size];
+    for (int i = 0; i < size; ++i)
+    {
+      order[i] = sorted[i].intValue();
+    }
+    
+    return order;
+  }
+  
+  
+  /**
+   * Return the set of rows with a value in any of the categories.
+   * An empty set of categories matches every row.
+   * 
+   * @param types the categories of interest
+   * @return a new set of the matching rows
+   */
+  public BitSet getRows(final Set<ValueType> types)
+  {
+    BitSet set = new BitSet(rows.size());
+    if (types.isEmpty())
+    {
+      set.set(0, rows.size());
+    }
+    else
+    {
+      for (ValueType type : types)
+      {
+        set.or(typeRows[type.ordinal()]);
+      }
+    }
+    
+    return set;
+  }
+  
+  
+  /**
+   * Return the filter on the keys of this snapshot.
+   * 
+   * @return the key filter
+   */
+  public KeyFilter getKeyFilter()
+  {
+    return getFilter(COLUMN_KEY);
+  }
+  
+  
+  /**
+   * Return the filter on a column of this snapshot.  The filter is
+   * built the first time it is requested, so a column that is
+   * never filtered does not pay for the index.  Building the filter
+   * on the value column gets the value of every row.
+   * 
+   * @param column the column: COLUMN_KEY, COLUMN_CLASS or
+   *               COLUMN_VALUE
+   * @return the filter
+   */
+  public synchronized KeyFilter getFilter(final int column)
+  {
+    KeyFilter filter = filters[column];
+    if (filter == null)
+    {
+      String[] list = new String[rows.size()];
+      for (int i = 0; i < list.length; ++i)
+      {
+        switch (column)
+        {
+          case COLUMN_CLASS:
+            list[i] = getValueClass(i);
+            break;
+          
+          case COLUMN_VALUE:
+            list[i] = getValue(i);
+            break;
+          
+          default:
+            list[i] = getKey(i);
+            break;
+        }
+      }
+      
+      filter = new KeyFilter();
+      filter.reset(Arrays.asList(list));
+      filters[column] = filter;
+    }
+    
+    return filter;
+  }
+}
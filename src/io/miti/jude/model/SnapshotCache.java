@@ -0,0 +1,146 @@
+/**
+ * @(#)SnapshotCache.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.LookAndFeel;
+import javax.swing.UIManager;
+
+/**
+ * Cache of the UI defaults snapshots, keyed on the class name
+ * of the look and feel.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SnapshotCache
+{
+  /**
+   * The snapshots, keyed on the look and feel class name.
+   */
+  private static final Map<String, Snapshot> cache =
+    new HashMap<String, Snapshot>(20);
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SnapshotCache()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Return the snapshot for the current look and feel, capturing
+   * it if this look and feel has not been seen before.
+   * 
+   * @return the snapshot of the current UI defaults
+   */
+  public static synchronized Snapshot getCurrent()
+  {
+    final String name = getCurrentName();
+    Snapshot snapshot = cache.get(name);
+    if (snapshot == null)
+    {
+      snapshot = Snapshot.capture(name, UIManager.getDefaults());
+      cache.put(name, snapshot);
+    }
+    
+    return snapshot;
+  }
+  
+  
+  /**
+   * Return the class name of the current look and feel.
+   * 
+   * @return the class name of the current look and feel
+   */
+  public static String getCurrentName()
+  {
+    return UIManager.getLookAndFeel().getClass().getName();
+  }
+  
+  
+  /**
+   * Return the cached snapshot for the look and feel, without
+   * capturing it.
+   * 
+   * @param name the class name of the look and feel
+   * @return the snapshot, or null if it is not cached
+   */
+  public static synchronized Snapshot get(final String name)
+  {
+    return cache.get(name);
+  }
+  
+  
+  /**
+   * Return the snapshot for a look and feel that need not be
+   * installed.  The current or cached snapshot is used if there
+   * is one; otherwise the defaults of the look and feel are
+   * captured, without installing or initializing it, or caching
+   * the result.
+   * 
+   * @param laf the look and feel
+   * @return the snapshot of its UI defaults
+   */
+  public static Snapshot getFor(final LookAndFeel laf)
+  {
+    final String name = laf.getClass().getName();
+    if (name.equals(getCurrentName()))
+    {
+      return getCurrent();
+    }
+    
+    Snapshot snapshot = get(name);
+    if (snapshot != null)
+    {
+      return snapshot;
+    }
+    
+    // Don't initialize or uninitialize the look and feel: that
+    // changes state shared with the installed look and feel (such
+    // as the popup menu listeners of the basic look and feels)
+    return Snapshot.capture(name, laf.getDefaults());
+  }
+  
+  
+  /**
+   * Add a snapshot to the cache, replacing any snapshot for
+   * the same look and feel.
+   * 
+   * @param snapshot the snapshot to add
+   */
+  public static synchronized void put(final Snapshot snapshot)
+  {
+    cache.put(snapshot.getName(), snapshot);
+  }
+  
+  
+  /**
+   * Remove the cached snapshot for a look and feel, so the values
+   * in it no longer keep its classes loaded.
+   * 
+   * @param name the class name of the look and feel
+   */
+  public static synchronized void remove(final String name)
+  {
+    cache.remove(name);
+  }
+  
+  
+  /**
+   * Remove all cached snapshots.
+   */
+  public static synchronized void clear()
+  {
+    cache.clear();
+  }
+}
@@ -0,0 +1,367 @@
+/**
+ * @(#)SnapshotDiff.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The differences between two snapshots: the keys only in the
+ * right snapshot (added), only in the left (removed), and in both
+ * with a different value class or value (changed).
+ * 
+ * Both snapshots are sorted by key, so the differences are found
+ * with a single merge pass over the key, class and value columns of
+ * the two snapshots, in time linear in their total size.  The
+ * differences are in key order.
+ * 
+ * Many values have no string form of their own, and show the
+ * identity hash code of the object (such as Border@1b6d3586), which
+ * differs on every run.  Hash codes are ignored when comparing
+ * values, so only real differences are reported.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SnapshotDiff
+{
+  /**
+   * The kinds of difference.
+   */
+  public enum Change
+  {
+    /**
+     * The key is only in the right snapshot.
+     */
+    ADDED("Added"),
+    
+    /**
+     * The key is only in the left snapshot.
+     */
+    REMOVED("Removed"),
+    
+    /**
+     * The key is in both snapshots, with different values.
+     */
+    CHANGED("Changed");
+    
+    /**
+     * The label shown to the user.
+     */
+    private final String label;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param sLabel the label shown to the user
+     */
+    private Change(final String sLabel)
+    {
+      label = sLabel;
+    }
+    
+    
+    /**
+     * Return the label shown to the user.
+     * 
+     * @return the label
+     */
+    public String getLabel()
+    {
+      return label;
+    }
+  }
+  
+  
+  /**
+   * One difference between the snapshots.
+   */
+  public static final class Entry
+  {
+    /**
+     * The kind of difference.
+     */
+    private final Change change;
+    
+    /**
+     * The row in the left snapshot, or null if added.
+     */
+    private final Defaults left;
+    
+    /**
+     * The row in the right snapshot, or null if removed.
+     */
+    private final Defaults right;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param pChange the kind of difference
+     * @param pLeft the row in the left snapshot, or null
+     * @param pRight the row in the right snapshot, or null
+     */
+    private Entry(final Change pChange, final Defaults pLeft,
+                  final Defaults pRight)
+    {
+      change = pChange;
+      left = pLeft;
+      right = pRight;
+    }
+    
+    
+    /**
+     * Return the key.
+     * 
+     * @return the key
+     */
+    public String getKey()
+    {
+      return (left != null) ? left.getKey() : right.getKey();
+    }
+    
+    
+    /**
+     * Return the kind of difference.
+     * 
+     * @return the kind of difference
+     */
+    public Change getChange()
+    {
+      return change;
+    }
+    
+    
+    /**
+     * Return the row in the left snapshot.
+     * 
+     * @return the row, or null if the key was added
+     */
+    public Defaults getLeft()
+    {
+      return left;
+    }
+    
+    
+    /**
+     * Return the row in the right snapshot.
+     * 
+     * @return the row, or null if the key was removed
+     */
+    public Defaults getRight()
+    {
+      return right;
+    }
+  }
+  
+  
+  /**
+   * The left snapshot.
+   */
+  private final Snapshot left;
+  
+  /**
+   * The right snapshot.
+   */
+  private final Snapshot right;
+  
+  /**
+   * The differences, in key order.
+   */
+  private final List<Entry> entries = new ArrayList<Entry>(100);
+  
+  /**
+   * The number of differences of each kind, indexed by ordinal.
+   */
+  private final int[] counts = new int[Change.values().length];
+  
+  
+  /**
+   * Compare two snapshots.
+   * 
+   * @param pLeft the left snapshot
+   * @param pRight the right snapshot
+   */
+  public SnapshotDiff(final Snapshot pLeft, final Snapshot pRight)
+  {
+    left = pLeft;
+    right = pRight;
+    merge();
+  }
+  
+  
+  /**
+   * Walk both sorted snapshots at once, saving the differences.
+   */
+  private void merge()
+  {
+    final int leftSize = left.size();
+    final int rightSize = right.size();
+    int i = 0;
+    int j = 0;
+    while ((i < leftSize) || (j < rightSize))
+    {
+      // Compare the keys, without joining the parts of each key;
+      // a list that has run out sorts last
+      final int cmp = (i >= leftSize) ? 1 :
+        ((j >= rightSize) ? -1 : left.get(i).compareTo(right.get(j)));
+      if (cmp < 0)
+      {
+        add(Change.REMOVED, left.get(i), null);
+        ++i;
+      }
+      else if (cmp > 0)
+      {
+        add(Change.ADDED, null, right.get(j));
+        ++j;
+      }
+      else
+      {
+        if (!left.getValueClass(i).equals(right.getValueClass(j)) ||
+            !sameValue(left.getValue(i), right.getValue(j)))
+        {
+          add(Change.CHANGED, left.get(i), right.get(j));
+        }
+        ++i;
+        ++j;
+      }
+    }
+  }
+  
+  
+  /**
+   * Return whether two values are the same, ignoring the hex
+   * digits after each '@'.
+   * 
+   * @param a the first value
+   * @param b the second value
+   * @return whether the values match
+   */
+  private static boolean sameValue(final String a, final String b)
+  {
+    if (a.equals(b))
+    {
+      return true;
+    }
+    
+    final int lenA = a.length();
+    final int lenB = b.length();
+    int i = 0;
+    int j = 0;
+    while ((i < lenA) && (j < lenB))
+    {
+      final char ch = a.charAt(i);
+      if (ch != b.charAt(j))
+      {
+        return false;
+      }
+      
+      ++i;
+      ++j;
+      if (ch == '@')
+      {
+        i = skipHex(a, i);
+        j = skipHex(b, j);
+      }
+    }
+    
+    return ((i == lenA) && (j == lenB));
+  }
+  
+  
+  /**
+   * Return the index of the first character at or after start
+   * that is not a hex digit.
+   * 
+   * @param str the string
+   * @param start the index to start at
+   * @return the index after the hex digits
+   */
+  private static int skipHex(final String str, final int start)
+  {
+    int index = start;
+    while ((index < str.length()) &&
+           (Character.digit(str.charAt(index), 16) >= 0))
+    {
+      ++index;
+    }
+    
+    return index;
+  }
+  
+  
+  /**
+   * Save a difference.
+   * 
+   * @param change the kind of difference
+   * @param l the row in the left snapshot, or null
+   * @param r the row in the right snapshot, or null
+   */
+  private void add(final Change change, final Defaults l, final Defaults r)
+  {
+    entries.add(new Entry(change, l, r));
+    ++counts[change.ordinal()];
+  }
+  
+  
+  /**
+   * Return the left snapshot.
+   * 
+   * @return the left snapshot
+   */
+  public Snapshot getLeft()
+  {
+    return left;
+  }
+  
+  
+  /**
+   * Return the right snapshot.
+   * 
+   * @return the right snapshot
+   */
+  public Snapshot getRight()
+  {
+    return right;
+  }
+  
+  
+  /**
+   * Return the number of differences.
+   * 
+   * @return the number of differences
+   */
+  public int size()
+  {
+    return entries.size();
+  }
+  
+  
+  /**
+   * Return the difference at the specified index.
+   * 
+   * @param index the index
+   * @return the difference
+   */
+  public Entry get(final int index)
+  {
+    return entries.get(index);
+  }
+  
+  
+  /**
+   * Return the number of differences of one kind.
+   * 
+   * @param change the kind of difference
+   * @return the number of differences of that kind
+   */
+  public int getCount(final Change change)
+  {
+    return counts[change.ordinal()];
+  }
+}
@@ -0,0 +1,562 @@
+/**
+ * @(#)SnapshotFile.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Insets;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read and write snapshots in a compact binary format.
+ * 
+ * The file starts with a header, followed by one fixed-size record
+ * per row, in key order, and then a pool of strings.  Each distinct
+ * string (key, class name, value, font family) is stored once, and
+ * records refer to strings by their index in the pool, so the keys
+ * form a dictionary and repeated class names cost four bytes each.
+ * 
+ * Header (32 bytes): magic, version, row count, string count,
+ * the string ID of the snapshot name, and the offsets of the rows,
+ * the string index and the string data.
+ * 
+ * Row (32 bytes): key ID, class ID, value ID (the string form),
+ * the kind of structured value, the categories of the value as a
+ * bit mask of ValueType ordinals, and four ints of structured value:
+ * RGBA for colors; top, left, bottom and right for insets; width and
+ * height for dimensions; family ID, style and size for fonts; and
+ * the value for integers and booleans.
+ * 
+ * String index: the offset of each string in the string data, plus
+ * the end of the data.  String data: the strings in UTF-8.
+ * 
+ * All numbers are big-endian.  Files are read with a memory-mapped
+ * buffer, and rows are decoded as they are used, so only the pages
+ * that are used are read from disk.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SnapshotFile
+{
+  /**
+   * The first four bytes of a snapshot file ("JUDS").
+   */
+  public static final int MAGIC = 0x4A554453;
+  
+  /**
+   * The version of the format.
+   */
+  public static final int VERSION = 1;
+  
+  /**
+   * The size of the header, in bytes.
+   */
+  static final int HEADER_SIZE = 32;
+  
+  /**
+   * The size of each row record, in bytes.
+   */
+  static final int ROW_SIZE = 32;
+  
+  /**
+   * The row has no structured value.
+   */
+  static final byte KIND_NONE = 0;
+  
+  /**
+   * The value is a string (the value ID).
+   */
+  static final byte KIND_STRING = 1;
+  
+  /**
+   * The value is an Integer.
+   */
+  static final byte KIND_INTEGER = 2;
+  
+  /**
+   * The value is a Boolean.
+   */
+  static final byte KIND_BOOLEAN = 3;
+  
+  /**
+   * The value is a Color.
+   */
+  static final byte KIND_COLOR = 4;
+  
+  /**
+   * The value is an Insets.
+   */
+  static final byte KIND_INSETS = 5;
+  
+  /**
+   * The value is a Dimension.
+   */
+  static final byte KIND_DIMENSION = 6;
+  
+  /**
+   * The value is a Font.
+   */
+  static final byte KIND_FONT = 7;
+  
+  /**
+   * The character set of the strings.
+   */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SnapshotFile()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Return whether the file starts with the snapshot file magic
+   * number.
+   * 
+   * @param fileName the name of the file
+   * @return whether the file is a snapshot file
+   */
+  public static boolean isSnapshotFile(final String fileName)
+  {
+    try
+    {
+      FileInputStream in = new FileInputStream(fileName);
+      try
+      {
+        byte[] bytes = new byte[4];
+        return ((in.read(bytes) == 4) && (ByteBuffer.wrap(bytes).getInt() == MAGIC));
+      }
+      finally
+      {
+        in.close();
+      }
+    }
+    catch (IOException e)
+    {
+      return false;
+    }
+  }
+  
+  
+  /**
+   * Write a snapshot to a file.
+   * 
+   * @param snapshot the snapshot
+   * @param fileName the name of the file
+   * @throws IOException if the file can't be written
+   */
+  public static void write(final Snapshot snapshot, final String fileName)
+    throws IOException
+  {
+    final int size = snapshot.size();
+    StringPool pool = new StringPool();
+    final int nameId = pool.add(snapshot.getName());
+    
+    // Get the categories of each row as a bit mask
+    final ValueType[] types = ValueType.values();
+    short[] masks = new short[size];
+    for (ValueType type : types)
+    {
+      BitSet set = snapshot.getRows(EnumSet.of(type));
+      for (int row = set.nextSetBit(0); row >= 0; row = set.nextSetBit(row + 1))
+      {
+        masks[row] |= (short) (1 << type.ordinal());
+      }
+    }
+    
+    // Write the row records
+    ByteBuffer rows = ByteBuffer.allocate(size * ROW_SIZE);
+    for (int i = 0; i < size; ++i)
+    {
+      Defaults def = snapshot.get(i);
+      rows.putInt(pool.add(def.getKey()));
+      rows.putInt(pool.add(def.getValueClass()));
+      rows.putInt(pool.add(def.getValue()));
+      putValue(rows, def.getValueAsObject(), masks[i], pool);
+    }
+    
+    // Write the string index and data
+    final int count = pool.size();
+    ByteBuffer index = ByteBuffer.allocate((count + 1) * 4);
+    ByteArrayOutputStream data = new ByteArrayOutputStream(count * 16);
+    for (int i = 0; i < count; ++i)
+    {
+      index.putInt(data.size());
+      byte[] bytes = pool.get(i).getBytes(UTF8);
+      data.write(bytes, 0, bytes.length);
+    }
+    index.putInt(data.size());
+    
+    // Write the header
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(count)
+          .putInt(nameId).putInt(HEADER_SIZE)
+          .putInt(HEADER_SIZE + rows.capacity())
+          .putInt(HEADER_SIZE + rows.capacity() + index.capacity());
+    
+    // Write the file
+    FileOutputStream out = new FileOutputStream(fileName);
+    try
+    {
+      FileChannel channel = out.getChannel();
+      ByteBuffer[] buffers = {header, rows, index, ByteBuffer.wrap(data.toByteArray())};
+      for (ByteBuffer buffer : buffers)
+      {
+        buffer.rewind();
+        while (buffer.hasRemaining())
+        {
+          channel.write(buffer);
+        }
+      }
+    }
+    finally
+    {
+      out.close();
+    }
+  }
+  
+  
+  /**
+   * Write the kind, categories and structured value of a row.
+   * 
+   * @param buf the row buffer
+   * @param value the value
+   * @param mask the categories of the value
+   * @param pool the string pool
+   */
+  private static void putValue(final ByteBuffer buf, final Object value,
+                               final short mask, final StringPool pool)
+  {
+    byte kind = KIND_NONE;
+    int p0 = 0;
+    int p1 = 0;
+    int p2 = 0;
+    int p3 = 0;
+    if (value instanceof String)
+    {
+      kind = KIND_STRING;
+    }
+    else if (value instanceof Integer)
+    {
+      kind = KIND_INTEGER;
+      p0 = ((Integer) value).intValue();
+    }
+    else if (value instanceof Boolean)
+    {
+      kind = KIND_BOOLEAN;
+      p0 = ((Boolean) value).booleanValue() ? 1 : 0;
+    }
+    else if (value instanceof Color)
+    {
+      kind = KIND_COLOR;
+      p0 = ((Color) value).getRGB();
+    }
+    else if (value instanceof Insets)
+    {
+      Insets insets = (Insets) value;
+      kind = KIND_INSETS;
+      p0 = insets.top;
+      p1 = insets.left;
+      p2 = insets.bottom;
+      p3 = insets.right;
+    }
+    else if (value instanceof Dimension)
+    {
+      Dimension dim = (Dimension) value;
+      kind = KIND_DIMENSION;
+      p0 = dim.width;
+      p1 = dim.height;
+    }
+    else if (value instanceof Font)
+    {
+      Font font = (Font) value;
+      kind = KIND_FONT;
+      p0 = pool.add(font.getFamily());
+      p1 = font.getStyle();
+      p2 = font.getSize();
+    }
+    
+    buf.put(kind).put((byte) 0).putShort(mask);
+    buf.putInt(p0).putInt(p1).putInt(p2).putInt(p3);
+  }
+  
+  
+  /**
+   * Open a snapshot file with a memory-mapped buffer, and check
+   * the header.
+   * 
+   * @param fileName the name of the file
+   * @return the buffer holding the file
+   * @throws IOException if the file can't be read, or is not
+   *                     a snapshot file
+   */
+  static ByteBuffer map(final String fileName) throws IOException
+  {
+    RandomAccessFile file = new RandomAccessFile(fileName, "r");
+    try
+    {
+      // The mapping stays valid after the file is closed
+      FileChannel channel = file.getChannel();
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                                         0, channel.size());
+      buf.order(ByteOrder.BIG_ENDIAN);
+      if ((buf.limit() < HEADER_SIZE) || (buf.getInt(0) != MAGIC))
+      {
+        throw new IOException(fileName + " is not a snapshot file");
+      }
+      else if (buf.getInt(4) != VERSION)
+      {
+        throw new IOException(fileName + " has unsupported version " +
+                              buf.getInt(4));
+      }
+      
+      return buf;
+    }
+    finally
+    {
+      file.close();
+    }
+  }
+  
+  
+  /**
+   * Open a snapshot file.  No rows are decoded here: the keys, value
+   * classes and categories of the rows come straight from the records
+   * and the string table, and each row is decoded the first time it is requested, so a large
+   * file opens at once, and only the rows that are used are read.
+   * 
+   * @param fileName the name of the file
+   * @return the snapshot
+   * @throws IOException if the file can't be read, or is not
+   *                     a snapshot file
+   */
+  public static Snapshot read(final String fileName) throws IOException
+  {
+    final ByteBuffer buf = map(fileName);
+    StringTable strings = new StringTable(buf);
+    MappedRows rows = new MappedRows(buf, strings);
+    
+    // Save the categories of each row
+    final int size = rows.size();
+    final ValueType[] types = ValueType.values();
+    BitSet[] typeRows = new BitSet[types.length];
+    for (int i = 0; i < types.length; ++i)
+    {
+      typeRows[i] = new BitSet(size);
+    }
+    for (int row = 0; row < size; ++row)
+    {
+      final int mask = rows.getTypeMask(row);
+      for (int i = 0; i < types.length; ++i)
+      {
+        if ((mask & (1 << i)) != 0)
+        {
+          typeRows[i].set(row);
+        }
+      }
+    }
+    
+    return new Snapshot(strings.get(buf.getInt(16)), rows, typeRows,
+                        rows.getKeys(), rows.getValueClasses());
+  }
+  
+  
+  /**
+   * Decode one row record.
+   * 
+   * @param buf the file buffer
+   * @param pos the offset of the record
+   * @param strings the string pool
+   * @return the row
+   */
+  static Defaults readRow(final ByteBuffer buf, final int pos,
+                          final StringTable strings)
+  {
+    final String key = strings.get(buf.getInt(pos));
+    final String valueClass = strings.get(buf.getInt(pos + 4));
+    final String value = strings.get(buf.getInt(pos + 8));
+    final int p0 = buf.getInt(pos + 16);
+    final int p1 = buf.getInt(pos + 20);
+    final int p2 = buf.getInt(pos + 24);
+    final int p3 = buf.getInt(pos + 28);
+    
+    // Rebuild the structured value
+    Object obj = null;
+    switch (buf.get(pos + 12))
+    {
+      case KIND_STRING: obj = value; break;
+      case KIND_INTEGER: obj = Integer.valueOf(p0); break;
+      case KIND_BOOLEAN: obj = Boolean.valueOf(p0 != 0); break;
+      case KIND_COLOR: obj = new Color(p0, true); break;
+      case KIND_INSETS: obj = new Insets(p0, p1, p2, p3); break;
+      case KIND_DIMENSION: obj = new Dimension(p0, p1); break;
+      case KIND_FONT: obj = new Font(strings.get(p0), p1, p2); break;
+      default: break;
+    }
+    
+    return new Defaults(key, obj, valueClass, value);
+  }
+  
+  
+  /**
+   * The strings of a snapshot being written.  Each distinct
+   * string is added once.
+   */
+  private static final class StringPool
+  {
+    /**
+     * The ID of each string.
+     */
+    private final Map<String, Integer> ids = new HashMap<String, Integer>(1000);
+    
+    /**
+     * The strings, by ID.
+     */
+    private final List<String> strings = new ArrayList<String>(1000);
+    
+    
+    /**
+     * Default constructor.
+     */
+    public StringPool()
+    {
+      super();
+    }
+    
+    
+    /**
+     * Return the ID of a string, adding it if it is new.
+     * 
+     * @param str the string
+     * @return the ID of the string
+     */
+    public int add(final String str)
+    {
+      Integer id = ids.get(str);
+      if (id == null)
+      {
+        id = Integer.valueOf(strings.size());
+        ids.put(str, id);
+        strings.add(str);
+      }
+      
+      return id.intValue();
+    }
+    
+    
+    /**
+     * Return the number of strings.
+     * 
+     * @return the number of strings
+     */
+    public int size()
+    {
+      return strings.size();
+    }
+    
+    
+    /**
+     * Return the string with the ID.
+     * 
+     * @param id the ID
+     * @return the string
+     */
+    public String get(final int id)
+    {
+      return strings.get(id);
+    }
+  }
+  
+  
+  /**
+   * The strings of a snapshot file.  Each string is decoded the
+   * first time it is used, and then kept, so strings shared by
+   * many rows are only decoded once.
+   */
+  static final class StringTable
+  {
+    /**
+     * The file buffer.
+     */
+    private final ByteBuffer buf;
+    
+    /**
+     * The offset of the string index.
+     */
+    private final int indexOffset;
+    
+    /**
+     * The offset of the string data.
+     */
+    private final int dataOffset;
+    
+    /**
+     * The decoded strings, by ID.
+     */
+    private final String[] strings;
+    
+    
+    /**
+     * Create the table for a file.
+     * 
+     * @param pBuf the file buffer
+     */
+    public StringTable(final ByteBuffer pBuf)
+    {
+      buf = pBuf;
+      strings = new String[buf.getInt(12)];
+      indexOffset = buf.getInt(24);
+      dataOffset = buf.getInt(28);
+    }
+    
+    
+    /**
+     * Return the string with the ID.
+     * 
+     * @param id the ID
+     * @return the string
+     */
+    public String get(final int id)
+    {
+      String str = strings[id];
+      if (str == null)
+      {
+        final int start = buf.getInt(indexOffset + (id * 4));
+        final int end = buf.getInt(indexOffset + ((id + 1) * 4));
+        byte[] bytes = new byte[end - start];
+        ByteBuffer dup = buf.duplicate();
+        dup.position(dataOffset + start);
+        dup.get(bytes);
+        str = new String(bytes, UTF8);
+        strings[id] = str;
+      }
+      
+      return str;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * @(#)SymbolTable.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The strings of one snapshot, each kept once.  Rows built with
+ * the same table share a single copy of each equal string, so
+ * the class names, values and key parts that repeat across many
+ * rows (such as ColorUIResource, or the "Button." in every Button
+ * key) only cost a reference per row.
+ * 
+ * The table may be used from more than one thread.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SymbolTable
+{
+  /**
+   * The strings, each mapped to itself.
+   */
+  private final ConcurrentMap<String, String> strings =
+    new ConcurrentHashMap<String, String>(1000);
+  
+  
+  /**
+   * Default constructor.
+   */
+  public SymbolTable()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Return the copy of a string kept in the table, adding the
+   * string if it is new.
+   * 
+   * @param str the string, or null
+   * @return the string from the table, or null
+   */
+  public String intern(final String str)
+  {
+    if (str == null)
+    {
+      return null;
+    }
+    
+    final String old = strings.putIfAbsent(str, str);
+    return (old == null) ? str : old;
+  }
+  
+  
+  /**
+   * Return the number of strings in the table.
+   * 
+   * @return the number of strings
+   */
+  public int size()
+  {
+    return strings.size();
+  }
+}
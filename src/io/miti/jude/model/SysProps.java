@@ -6,6 +6,13 @@
 
 package io.miti.jude.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+
 /**
  * Class to encapsulate the data displayed in the system properties table.
  * 
@@ -47,6 +54,89 @@ public final class SysProps implements Comparable<SysProps>
   }
   
   
+  /**
+   * Get all of the system properties, sorted by key.  Control
+   * characters in the values are replaced with escape sequences.
+   * 
+   * @return the system properties
+   */
+  public static List<SysProps> capture()
+  {
+    // Iterate over all of the system properties
+    Properties props = System.getProperties();
+    Set<Entry<Object, Object>> entrySet = props.entrySet();
+    List<SysProps> list = new ArrayList<SysProps>(entrySet.size());
+    for (Entry<Object, Object> entry : entrySet)
+    {
+      // Print the key and value (both are Strings)
+      String key = entry.getKey().toString();
+      String value = entry.getValue().toString();
+      String val = replaceControlCharacters(value);
+      list.add(new SysProps(key, val));
+    }
+    
+    // Sort the list
+    Collections.sort(list);
+    return list;
+  }
+  
+  
+  /**
+   * Replace certain control characters with a String representation
+   * of those characters.
+   * 
+   * @param value the string to check
+   * @return the modified string
+   */
+  private static String replaceControlCharacters(final String value)
+  {
+    final int len = value.length();
+    StringBuilder sb = new StringBuilder(len);
+    
+    // Iterate over all characters
+    for (int i = 0; i < len; ++i)
+    {
+      final char ch = value.charAt(i);
+      if (Character.isISOControl(ch))
+      {
+        // Check for certain control characters
+        if (ch == '\r')
+        {
+          sb.append("\\r");
+        }
+        else if (ch == '\n')
+        {
+          sb.append("\\n");
+        }
+        else if (ch == '\t')
+        {
+          sb.append("\\t");
+        }
+        else if (ch == '\f')
+        {
+          sb.append("\\f");
+        }
+        else if (ch == '\b')
+        {
+          sb.append("\\b");
+        }
+        else
+        {
+          sb.append(ch);
+        }
+      }
+      else
+      {
+        // It's not a control character, so just add it
+        sb.append(ch);
+      }
+    }
+    
+    // Return the string
+    return sb.toString();
+  }
+  
+  
   /**
    * Return the key.
    * 
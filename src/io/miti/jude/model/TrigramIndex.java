@@ -0,0 +1,390 @@
+/**
+ * @(#)TrigramIndex.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.util.Arrays;
+
+/**
+ * An inverted index of the three-character sequences (trigrams) in
+ * a set of strings.  Each trigram maps to a posting list of the
+ * indices of the strings containing it, stored in ascending order
+ * in a single int array.  A substring search intersects the posting
+ * lists of the trigrams in the search string, and then checks only
+ * the remaining candidates.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class TrigramIndex
+{
+  /**
+   * The number of characters in each gram.
+   */
+  public static final int GRAM = 3;
+  
+  /**
+   * An empty posting list.
+   */
+  private static final int[] EMPTY = new int[0];
+  
+  /**
+   * The hash table of trigrams.  Empty slots hold -1, which is
+   * not a valid trigram since the characters are 16 bits.
+   */
+  private long[] grams;
+  
+  /**
+   * The ID of the trigram in the same slot of grams.
+   */
+  private int[] gramIds;
+  
+  /**
+   * The mask for the index into the hash table.
+   */
+  private int mask;
+  
+  /**
+   * The start of each trigram's posting list in postings, by ID.
+   * The list for ID n ends at offsets[n + 1].
+   */
+  private int[] offsets;
+  
+  /**
+   * All posting lists, one after another.
+   */
+  private int[] postings;
+  
+  /**
+   * The indexed strings.
+   */
+  private final String[] values;
+  
+  
+  /**
+   * Build the index for the strings.
+   * 
+   * @param strings the strings to index
+   */
+  public TrigramIndex(final String[] strings)
+  {
+    values = strings;
+    
+    // Size the hash table to stay at most half full.  The number
+    // of distinct trigrams is bounded by the total of all
+    // trigram positions.
+    int positions = 0;
+    for (String str : strings)
+    {
+      positions += Math.max(0, str.length() - GRAM + 1);
+    }
+    int capacity = 16;
+    while (capacity < (positions * 2))
+    {
+      capacity <<= 1;
+    }
+    grams = new long[capacity];
+    Arrays.fill(grams, -1L);
+    gramIds = new int[capacity];
+    mask = capacity - 1;
+    
+    // First pass: assign an ID to each trigram, and count the
+    // strings containing it
+    int[] counts = new int[16];
+    int[] lastRow = new int[16];
+    int numIds = 0;
+    for (int row = 0; row < strings.length; ++row)
+    {
+      final String str = strings[row];
+      final int end = str.length() - GRAM;
+      for (int pos = 0; pos <= end; ++pos)
+      {
+        final long gram = encode(str, pos);
+        int id = find(gram);
+        if (id < 0)
+        {
+          // This is a new trigram
+          id = numIds++;
+          insert(gram, id);
+          if (id >= counts.length)
+          {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+            lastRow = Arrays.copyOf(lastRow, lastRow.length * 2);
+          }
+          lastRow[id] = -1;
+        }
+        
+        // Only count each string once per trigram
+        if (lastRow[id] != row)
+        {
+          lastRow[id] = row;
+          ++counts[id];
+        }
+      }
+    }
+    
+    // Compute where each posting list starts
+    offsets = new int[numIds + 1];
+    for (int id = 0; id < numIds; ++id)
+    {
+      offsets[id + 1] = offsets[id] + counts[id];
+    }
+    
+    // Second pass: fill in the posting lists.  The rows are
+    // visited in order, so each list is sorted.
+    postings = new int[offsets[numIds]];
+    int[] fill = Arrays.copyOf(offsets, numIds);
+    Arrays.fill(lastRow, 0, numIds, -1);
+    for (int row = 0; row < strings.length; ++row)
+    {
+      final String str = strings[row];
+      final int end = str.length() - GRAM;
+      for (int pos = 0; pos <= end; ++pos)
+      {
+        final int id = find(encode(str, pos));
+        if (lastRow[id] != row)
+        {
+          lastRow[id] = row;
+          postings[fill[id]++] = row;
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the indices of the strings containing the search string,
+   * in ascending order.  The search string must be at least GRAM
+   * characters long.
+   * 
+   * @param search the string to search for
+   * @return the matching indices
+   */
+  public int[] search(final String search)
+  {
+    return search(search, null, 0);
+  }
+  
+  
+  /**
+   * Return the indices of the strings containing the search string,
+   * out of a set of candidate rows, in ascending order.  This is for
+   * a search string that extends a previous one: only the rows that
+   * matched the previous string are intersected with the posting
+   * lists.  The search string must be at least GRAM characters long.
+   * 
+   * @param search the string to search for
+   * @param within the candidate rows in ascending order, or null
+   *               to search all strings
+   * @param size the number of candidate rows
+   * @return the matching indices
+   */
+  public int[] search(final String search, final int[] within, final int size)
+  {
+    // Get the posting list for each trigram in the search string
+    final int numGrams = search.length() - GRAM + 1;
+    int[] ids = new int[numGrams];
+    for (int pos = 0; pos < numGrams; ++pos)
+    {
+      final int id = find(encode(search, pos));
+      if (id < 0)
+      {
+        // No string contains this trigram
+        return EMPTY;
+      }
+      
+      ids[pos] = id;
+    }
+    
+    // Start with the shortest list, since the intersection can
+    // be no longer than that
+    int shortest = 0;
+    for (int i = 1; i < numGrams; ++i)
+    {
+      if (length(ids[i]) < length(ids[shortest]))
+      {
+        shortest = i;
+      }
+    }
+    // If the candidate rows are fewer, start with those instead
+    int count;
+    int[] result;
+    if ((within != null) && (size <= length(ids[shortest])))
+    {
+      count = size;
+      result = Arrays.copyOf(within, size);
+      shortest = -1;
+    }
+    else
+    {
+      count = length(ids[shortest]);
+      result = new int[count];
+      System.arraycopy(postings, offsets[ids[shortest]], result, 0, count);
+      if (within != null)
+      {
+        count = intersect(result, count, within, size);
+      }
+    }
+    
+    // Intersect with the remaining lists
+    for (int i = 0; (i < numGrams) && (count > 0); ++i)
+    {
+      if ((shortest < 0) || ((i != shortest) && (ids[i] != ids[shortest])))
+      {
+        count = intersect(result, count, postings, offsets[ids[i]], offsets[ids[i] + 1]);
+      }
+    }
+    
+    // The trigrams may appear in the string, but not next to
+    // each other, so check each candidate
+    int matches = 0;
+    for (int i = 0; i < count; ++i)
+    {
+      if (values[result[i]].contains(search))
+      {
+        result[matches++] = result[i];
+      }
+    }
+    
+    return Arrays.copyOf(result, matches);
+  }
+  
+  
+  /**
+   * Return the length of the posting list for the trigram ID.
+   * 
+   * @param id the trigram ID
+   * @return the length of its posting list
+   */
+  private int length(final int id)
+  {
+    return offsets[id + 1] - offsets[id];
+  }
+  
+  
+  /**
+   * Keep only those entries in rows that are also in another list
+   * of rows.
+   * 
+   * @param rows the current rows, in ascending order
+   * @param count the number of rows
+   * @param other the other rows, in ascending order
+   * @param size the number of other rows
+   * @return the number of rows remaining
+   */
+  private static int intersect(final int[] rows, final int count,
+                               final int[] other, final int size)
+  {
+    return intersect(rows, count, other, 0, size);
+  }
+  
+  
+  /**
+   * Keep only those entries in rows that are also in part of
+   * another array, such as the posting list of a trigram.
+   * 
+   * @param rows the current rows, in ascending order
+   * @param count the number of rows
+   * @param list the array holding the other rows, in ascending order
+   * @param from the index of the first of the other rows
+   * @param end the index after the last of the other rows
+   * @return the number of rows remaining
+   */
+  private static int intersect(final int[] rows, final int count,
+                               final int[] list, final int from, final int end)
+  {
+    int pos = from;
+    int kept = 0;
+    for (int i = 0; (i < count) && (pos < end); ++i)
+    {
+      final int row = rows[i];
+      
+      // Skip past the smaller entries in the other list
+      while ((pos < end) && (list[pos] < row))
+      {
+        ++pos;
+      }
+      
+      if ((pos < end) && (list[pos] == row))
+      {
+        rows[kept++] = row;
+        ++pos;
+      }
+    }
+    
+    return kept;
+  }
+  
+  
+  /**
+   * Pack the three characters starting at pos into a long.
+   * 
+   * @param str the string
+   * @param pos the index of the first character
+   * @return the trigram
+   */
+  private static long encode(final String str, final int pos)
+  {
+    return (((long) str.charAt(pos)) << 32) |
+           (((long) str.charAt(pos + 1)) << 16) |
+           ((long) str.charAt(pos + 2));
+  }
+  
+  
+  /**
+   * Return the hash table slot to start probing for the trigram.
+   * 
+   * @param gram the trigram
+   * @return the slot
+   */
+  private int slot(final long gram)
+  {
+    long h = gram * 0x9E3779B97F4A7C15L;
+    return ((int) (h >>> 32)) & mask;
+  }
+  
+  
+  /**
+   * Return the ID of the trigram, or -1 if it is not in the index.
+   * 
+   * @param gram the trigram
+   * @return the trigram's ID
+   */
+  private int find(final long gram)
+  {
+    int index = slot(gram);
+    while (grams[index] != -1L)
+    {
+      if (grams[index] == gram)
+      {
+        return gramIds[index];
+      }
+      
+      index = (index + 1) & mask;
+    }
+    
+    return -1;
+  }
+  
+  
+  /**
+   * Add a trigram to the hash table.
+   * 
+   * @param gram the trigram
+   * @param id the trigram's ID
+   */
+  private void insert(final long gram, final int id)
+  {
+    int index = slot(gram);
+    while (grams[index] != -1L)
+    {
+      index = (index + 1) & mask;
+    }
+    
+    grams[index] = gram;
+    gramIds[index] = id;
+  }
+}
@@ -0,0 +1,27 @@
+/**
+ * @(#)ValueFormatter.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+/**
+ * Interface for appending a description of a value to a
+ * string builder.  Formatters are registered with the
+ * ValueNormalizer for a class or interface.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public interface ValueFormatter
+{
+  /**
+   * Append a description of the value to the string builder.
+   * The value is never null.
+   * 
+   * @param value the value to describe
+   * @param sb the string builder to append to
+   */
+  void format(Object value, StringBuilder sb);
+}
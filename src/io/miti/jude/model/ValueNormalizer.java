@@ -10,17 +10,78 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Insets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.swing.ActionMap;
+import javax.swing.Icon;
+import javax.swing.InputMap;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
 
 /**
  * Class that provides a public static method for generating
  * a toString() for different classes, based on the value
- * passed to the method.
+ * passed to the method.  The description is built by the
+ * ValueFormatter registered for the value's class, or the
+ * closest superclass or interface with a formatter; values
+ * with no formatter use toString().
  * 
  * @author mwallace
  * @version 1.0
  */
 public final class ValueNormalizer
 {
+  /**
+   * The registered formatters, keyed on class or interface.
+   */
+  private static final Map<Class<?>, ValueFormatter> formatters =
+    new ConcurrentHashMap<Class<?>, ValueFormatter>(20);
+  
+  /**
+   * The formatter to use for each class seen so far, found by
+   * searching the class hierarchy.  The formatter is kept with the
+   * class, so it does not stop the class (such as one from a theme)
+   * from being unloaded.  A new instance is made whenever a formatter
+   * is registered, so no formatter resolved before that is kept.
+   */
+  private static volatile ClassValue<ValueFormatter> resolved = newResolver();
+  
+  /**
+   * The formatter for classes with no registered formatter.
+   */
+  private static final ValueFormatter DEFAULT_FORMATTER = new ValueFormatter()
+  {
+    @Override
+    public void format(final Object value, final StringBuilder sb)
+    {
+      sb.append(value.toString());
+    }
+  };
+  
+  /**
+   * A string builder for each thread, reused by makeString().
+   */
+  private static final ThreadLocal<StringBuilder> builder =
+    new ThreadLocal<StringBuilder>()
+  {
+    @Override
+    protected StringBuilder initialValue()
+    {
+      return new StringBuilder(200);
+    }
+  };
+  
+  // Register the formatters for the common value classes
+  static
+  {
+    registerDefaultFormatters();
+  }
+  
+  
   /**
    * Default constructor.
    */
@@ -30,6 +91,41 @@ public final class ValueNormalizer
   }
   
   
+  /**
+   * Register a formatter for values of a class, or of any class
+   * that extends or implements it (unless a more specific class
+   * has its own formatter).  This replaces any formatter already
+   * registered for the class.
+   * 
+   * @param clazz the class or interface
+   * @param formatter the formatter for the class
+   */
+  public static void register(final Class<?> clazz,
+                              final ValueFormatter formatter)
+  {
+    formatters.put(clazz, formatter);
+    resolved = newResolver();
+  }
+  
+  
+  /**
+   * Return a new, empty cache of the formatter for each class.
+   * 
+   * @return the cache
+   */
+  private static ClassValue<ValueFormatter> newResolver()
+  {
+    return new ClassValue<ValueFormatter>()
+    {
+      @Override
+      protected ValueFormatter computeValue(final Class<?> type)
+      {
+        return findFormatter(type);
+      }
+    };
+  }
+  
+  
   /**
    * Return a reasonable toString() value for the object.
    * 
@@ -44,68 +140,277 @@ public final class ValueNormalizer
       return "[null]";
     }
     
-    // Check for different classes
-    String value;
-    if (obj instanceof Integer)
+    // Build the string in this thread's builder
+    StringBuilder sb = builder.get();
+    sb.setLength(0);
+    appendTo(obj, sb);
+    return sb.toString();
+  }
+  
+  
+  /**
+   * Append a reasonable toString() value for the object to the
+   * string builder.  Formatters that describe nested values
+   * should call this method, not makeString().
+   * 
+   * @param obj the object to describe
+   * @param sb the string builder to append to
+   */
+  public static void appendTo(final Object obj, final StringBuilder sb)
+  {
+    if (obj == null)
     {
-      value = Integer.toString(((Integer) obj));
+      sb.append("[null]");
+      return;
     }
-    else if (obj instanceof Color)
+    
+    // If the formatter fails, fall back to toString()
+    final int start = sb.length();
+    try
     {
-      Color c = (Color) obj;
-      value = "Color: R=" + c.getRed() + " G=" + c.getGreen() + " B=" + c.getBlue();
+      getFormatter(obj.getClass()).format(obj, sb);
     }
-    else if (obj instanceof Insets)
+    catch (RuntimeException e)
     {
-      Insets c = (Insets) obj;
-      value = "Insets: Top=" + c.top + " Left=" + c.left +
-              " Bottom=" + c.bottom + " Right=" + c.right;
+      sb.setLength(start);
+      sb.append(obj.toString());
     }
-    else if (obj instanceof Dimension)
+  }
+  
+  
+  /**
+   * Return the formatter for the class, searching the class
+   * hierarchy the first time the class is seen.
+   * 
+   * @param clazz the class of the value
+   * @return the formatter to use
+   */
+  private static ValueFormatter getFormatter(final Class<?> clazz)
+  {
+    return resolved.get(clazz);
+  }
+  
+  
+  /**
+   * Search the class hierarchy for a formatter.  Superclasses are
+   * checked before interfaces.
+   * 
+   * @param clazz the class of the value
+   * @return the formatter to use
+   */
+  private static ValueFormatter findFormatter(final Class<?> clazz)
+  {
+    // Check the class and its superclasses
+    List<Class<?>> interfaces = new ArrayList<Class<?>>(10);
+    for (Class<?> c = clazz; c != null; c = c.getSuperclass())
     {
-      Dimension c = (Dimension) obj;
-      value = "Dimension: Width=" + c.width + " Height=" + c.height;
+      ValueFormatter formatter = formatters.get(c);
+      if (formatter != null)
+      {
+        return formatter;
+      }
+      
+      for (Class<?> i : c.getInterfaces())
+      {
+        interfaces.add(i);
+      }
     }
-//    else if (obj instanceof Border)
-//    {
-//      Border c = (Border) obj;
-//      value = "Border: " + c.toString();
-//    }
-    else if (obj instanceof Font)
-    {
-      Font c = (Font) obj;
-      value = "Font: Family=" + c.getFamily() + "  Name=" + c.getName() +
-              "  Style=";
+    
+    // Check the interfaces, breadth-first, so that an interface
+    // is checked before the interfaces it extends
+    for (int index = 0; index < interfaces.size(); ++index)
+    {
+      final Class<?> i = interfaces.get(index);
+      ValueFormatter formatter = formatters.get(i);
+      if (formatter != null)
+      {
+        return formatter;
+      }
       
-      // Check the font style
-      if ((c.isBold()) && (c.isItalic()))
+      for (Class<?> parent : i.getInterfaces())
       {
-        value += "Bold-Italic";
+        interfaces.add(parent);
       }
-      else if (c.isBold())
+    }
+    
+    return DEFAULT_FORMATTER;
+  }
+  
+  
+  /**
+   * Append the four values of insets.
+   * 
+   * @param c the insets
+   * @param sb the string builder to append to
+   */
+  private static void appendInsets(final Insets c, final StringBuilder sb)
+  {
+    sb.append("Top=").append(c.top)
+      .append(" Left=").append(c.left)
+      .append(" Bottom=").append(c.bottom)
+      .append(" Right=").append(c.right);
+  }
+  
+  
+  /**
+   * Append the red, green and blue values of a color.
+   * 
+   * @param c the color
+   * @param sb the string builder to append to
+   */
+  private static void appendColor(final Color c, final StringBuilder sb)
+  {
+    sb.append("R=").append(c.getRed())
+      .append(" G=").append(c.getGreen())
+      .append(" B=").append(c.getBlue());
+  }
+  
+  
+  /**
+   * Register the formatters for the common value classes.
+   */
+  private static void registerDefaultFormatters()
+  {
+    register(Integer.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
       {
-        value += "Bold";
+        sb.append(((Integer) value).intValue());
       }
-      else if (c.isItalic())
+    });
+    
+    register(Color.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
       {
-        value += "Italic";
+        sb.append("Color: ");
+        appendColor((Color) value, sb);
       }
-      else if (c.isPlain())
+    });
+    
+    register(Insets.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
       {
-        value += "Plain";
+        sb.append("Insets: ");
+        appendInsets((Insets) value, sb);
       }
-      else
+    });
+    
+    register(Dimension.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
       {
-        value += "Unknown";
+        Dimension c = (Dimension) value;
+        sb.append("Dimension: Width=").append(c.width)
+          .append(" Height=").append(c.height);
       }
-      
-      value += "  Size=" + c.getSize();
-    }
-    else
+    });
+    
+    register(Font.class, new ValueFormatter()
     {
-      value = obj.toString();
-    }
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        Font c = (Font) value;
+        sb.append("Font: Family=").append(c.getFamily())
+          .append("  Name=").append(c.getName())
+          .append("  Style=");
+        
+        // Check the font style
+        if ((c.isBold()) && (c.isItalic()))
+        {
+          sb.append("Bold-Italic");
+        }
+        else if (c.isBold())
+        {
+          sb.append("Bold");
+        }
+        else if (c.isItalic())
+        {
+          sb.append("Italic");
+        }
+        else if (c.isPlain())
+        {
+          sb.append("Plain");
+        }
+        else
+        {
+          sb.append("Unknown");
+        }
+        
+        sb.append("  Size=").append(c.getSize());
+      }
+    });
+    
+    register(Icon.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        Icon c = (Icon) value;
+        sb.append("Icon: Width=").append(c.getIconWidth())
+          .append(" Height=").append(c.getIconHeight());
+      }
+    });
+    
+    register(EmptyBorder.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        sb.append("EmptyBorder: ");
+        appendInsets(((EmptyBorder) value).getBorderInsets(), sb);
+      }
+    });
+    
+    register(LineBorder.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        LineBorder c = (LineBorder) value;
+        sb.append("LineBorder: Color=[");
+        appendTo(c.getLineColor(), sb);
+        sb.append("] Thickness=").append(c.getThickness())
+          .append(" Rounded=").append(c.getRoundedCorners());
+      }
+    });
+    
+    register(CompoundBorder.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        CompoundBorder c = (CompoundBorder) value;
+        sb.append("CompoundBorder: Outside=[");
+        appendTo(c.getOutsideBorder(), sb);
+        sb.append("] Inside=[");
+        appendTo(c.getInsideBorder(), sb);
+        sb.append(']');
+      }
+    });
+    
+    register(ActionMap.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        sb.append("ActionMap: Actions=").append(((ActionMap) value).size());
+      }
+    });
     
-    return value;
+    register(InputMap.class, new ValueFormatter()
+    {
+      @Override
+      public void format(final Object value, final StringBuilder sb)
+      {
+        sb.append("InputMap: Bindings=").append(((InputMap) value).size());
+      }
+    });
   }
 }
@@ -0,0 +1,128 @@
+/**
+ * @(#)ValueType.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.model;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Insets;
+
+import javax.swing.ActionMap;
+import javax.swing.Icon;
+import javax.swing.InputMap;
+import javax.swing.border.Border;
+
+/**
+ * The categories of values that the table can be filtered on.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public enum ValueType
+{
+  /**
+   * String values.
+   */
+  STRING("Strings", String.class),
+  
+  /**
+   * Font values.
+   */
+  FONT("Fonts", Font.class),
+  
+  /**
+   * Color values.
+   */
+  COLOR("Colors", Color.class),
+  
+  /**
+   * Border values.
+   */
+  BORDER("Borders", Border.class),
+  
+  /**
+   * Insets values.
+   */
+  INSETS("Insets", Insets.class),
+  
+  /**
+   * ActionMap values.
+   */
+  ACTION_MAP("ActionMaps", ActionMap.class),
+  
+  /**
+   * Integer values.
+   */
+  INTEGER("Integers", Integer.class),
+  
+  /**
+   * Icon values.
+   */
+  ICON("Icons", Icon.class),
+  
+  /**
+   * Dimension values.
+   */
+  DIMENSION("Dimensions", Dimension.class),
+  
+  /**
+   * Boolean values.
+   */
+  BOOLEAN("Booleans", Boolean.class),
+  
+  /**
+   * InputMap values.
+   */
+  INPUT_MAP("InputMaps", InputMap.class);
+  
+  /**
+   * The name to show the user.
+   */
+  private final String label;
+  
+  /**
+   * The class (or interface) of the values in this category.
+   */
+  private final Class<?> valueClass;
+  
+  
+  /**
+   * Constructor taking all parameters.
+   * 
+   * @param sLabel the name to show the user
+   * @param pClass the class of the values in this category
+   */
+  private ValueType(final String sLabel, final Class<?> pClass)
+  {
+    label = sLabel;
+    valueClass = pClass;
+  }
+  
+  
+  /**
+   * Return the name to show the user.
+   * 
+   * @return the name of this category
+   */
+  public String getLabel()
+  {
+    return label;
+  }
+  
+  
+  /**
+   * Return whether the value is in this category.  Null values
+   * are not in any category.
+   * 
+   * @param value the value to check
+   * @return whether the value is in this category
+   */
+  public boolean matches(final Object value)
+  {
+    return valueClass.isInstance(value);
+  }
+}
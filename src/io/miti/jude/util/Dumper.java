@@ -0,0 +1,613 @@
+/**
+ * @(#)Dumper.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import io.miti.jude.model.Defaults;
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotCache;
+import io.miti.jude.model.SnapshotFile;
+import io.miti.jude.model.SymbolTable;
+import io.miti.jude.model.SysProps;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.UIManager;
+
+/**
+ * Write the UI defaults of a look and feel, or the system
+ * properties, to standard output or a file, without creating
+ * any windows.  This is run when the application is started
+ * with command-line arguments:
+ * 
+ * -laf class   the look and feel to install (default: the system's)
+ * -format fmt  json, csv, text or binary (default: text); binary
+ *              needs -out, and can't be used with -system
+ * -out file    the file to write (default: standard output)
+ * -system      write the system properties instead of the UI defaults
+ * 
+ * A file of UI defaults written as text can be read back with
+ * readText(), and one written as binary with SnapshotFile.read().
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class Dumper
+{
+  /**
+   * The exit status for success.
+   */
+  public static final int EXIT_OK = 0;
+  
+  /**
+   * The exit status for invalid arguments.
+   */
+  public static final int EXIT_USAGE = 1;
+  
+  /**
+   * The exit status if the look and feel can't be installed.
+   */
+  public static final int EXIT_LAF = 2;
+  
+  /**
+   * The exit status if the output can't be written.
+   */
+  public static final int EXIT_IO = 3;
+  
+  /**
+   * The character encoding of output files.
+   */
+  private static final String ENCODING = "UTF-8";
+  
+  /**
+   * The first line of a text file of UI defaults.
+   */
+  private static final String TEXT_HEADER = "Key\tClass\tValue";
+  
+  /**
+   * The class name of the look and feel, or null for the default.
+   */
+  private String lafName = null;
+  
+  /**
+   * The output format.
+   */
+  private String format = "text";
+  
+  /**
+   * The name of the output file, or null for standard output.
+   */
+  private String outName = null;
+  
+  /**
+   * Whether to write the system properties.
+   */
+  private boolean system = false;
+  
+  
+  /**
+   * Default constructor.
+   */
+  private Dumper()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Run the command.  This must be called before any AWT class is
+   * loaded, so that the toolkit starts in headless mode.
+   * 
+   * @param args the command-line arguments
+   * @return the exit status
+   */
+  public static int run(final String[] args)
+  {
+    // Never open a window
+    System.setProperty("java.awt.headless", "true");
+    Logger.initialize(4, "stderr", false);
+    
+    Dumper dumper = new Dumper();
+    if (!dumper.parse(args))
+    {
+      System.err.println("Usage: java -jar jude.jar [-laf class] " +
+                         "[-format json|csv|text|binary] [-out file] [-system]");
+      return EXIT_USAGE;
+    }
+    
+    return dumper.dump();
+  }
+  
+  
+  /**
+   * Return whether the command-line arguments ask for a dump,
+   * because they include one of the Dumper options.  Other
+   * arguments, such as those added by a launcher (like -psn_ on
+   * a Mac), don't stop the GUI from being shown.
+   * 
+   * @param args the arguments
+   * @return whether to dump the data instead of showing the GUI
+   */
+  public static boolean isDumpRequested(final String[] args)
+  {
+    for (String arg : args)
+    {
+      if (arg.equals("-laf") || arg.equals("-format") ||
+          arg.equals("-out") || arg.equals("-system"))
+      {
+        return true;
+      }
+    }
+    
+    return false;
+  }
+  
+  
+  /**
+   * Parse the command-line arguments.
+   * 
+   * @param args the arguments
+   * @return whether the arguments are valid
+   */
+  private boolean parse(final String[] args)
+  {
+    for (int i = 0; i < args.length; ++i)
+    {
+      final String arg = args[i];
+      if (arg.equals("-system"))
+      {
+        system = true;
+      }
+      else if ((i + 1) >= args.length)
+      {
+        // The other options take a value
+        return false;
+      }
+      else if (arg.equals("-laf"))
+      {
+        lafName = args[++i];
+      }
+      else if (arg.equals("-format"))
+      {
+        format = args[++i].toLowerCase();
+        if (!format.equals("json") && !format.equals("csv") &&
+            !format.equals("text") && !format.equals("binary"))
+        {
+          return false;
+        }
+      }
+      else if (arg.equals("-out"))
+      {
+        outName = args[++i];
+      }
+      else
+      {
+        return false;
+      }
+    }
+    
+    // Binary snapshots hold UI defaults, and must go to a file
+    return (!format.equals("binary") || ((outName != null) && !system));
+  }
+  
+  
+  /**
+   * Capture the data and write it out.
+   * 
+   * @return the exit status
+   */
+  private int dump()
+  {
+    // Install the look and feel, unless only writing the
+    // system properties
+    Snapshot snapshot = null;
+    List<SysProps> props = null;
+    if (system)
+    {
+      props = SysProps.capture();
+    }
+    else
+    {
+      if (!installLookAndFeel())
+      {
+        return EXIT_LAF;
+      }
+      
+      snapshot = SnapshotCache.getCurrent();
+    }
+    
+    // Binary snapshots are written directly to the file
+    if (format.equals("binary"))
+    {
+      try
+      {
+        SnapshotFile.write(snapshot, outName);
+        return EXIT_OK;
+      }
+      catch (IOException e)
+      {
+        System.err.println("Unable to write the output: " + e.getMessage());
+        return EXIT_IO;
+      }
+    }
+    
+    // Write the data
+    Writer out = null;
+    try
+    {
+      out = openOutput();
+      if (format.equals("json"))
+      {
+        writeJSON(snapshot, props, out);
+      }
+      else
+      {
+        writeRows(snapshot, props, format.equals("csv"), out);
+      }
+      
+      out.flush();
+      return EXIT_OK;
+    }
+    catch (IOException e)
+    {
+      System.err.println("Unable to write the output: " + e.getMessage());
+    }
+    catch (InterruptedException e)
+    {
+      System.err.println("Interrupted writing the output");
+      Thread.currentThread().interrupt();
+      return EXIT_IO;
+    }
+    catch (ExecutionException e)
+    {
+      System.err.println("Unable to export the UI defaults: " + e.getCause());
+    }
+    finally
+    {
+      // Close the file, but leave standard output open
+      if ((out != null) && (outName != null))
+      {
+        try
+        {
+          out.close();
+        }
+        catch (IOException e)
+        {
+          Logger.error(e);
+        }
+      }
+    }
+    
+    return EXIT_IO;
+  }
+  
+  
+  /**
+   * Open the output file, or standard output.  Files are written
+   * as UTF-8, so they can be read back on any platform.
+   * 
+   * @return the output
+   * @throws IOException if the file can't be opened
+   */
+  private Writer openOutput() throws IOException
+  {
+    if (outName == null)
+    {
+      return new BufferedWriter(new OutputStreamWriter(System.out));
+    }
+    
+    return new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(outName), ENCODING));
+  }
+  
+  
+  /**
+   * Install the look and feel.  If the class is not found, the
+   * themes are loaded and it is tried again.
+   * 
+   * @return whether the look and feel was installed
+   */
+  private boolean installLookAndFeel()
+  {
+    final String name = (lafName == null) ?
+                        UIManager.getSystemLookAndFeelClassName() : lafName;
+    try
+    {
+      try
+      {
+        UIManager.setLookAndFeel(name);
+      }
+      catch (ClassNotFoundException e)
+      {
+        // The class may be in one of the theme JARs
+        ThemeLoader.getInstance().loadThemes();
+        LAFAdmin.install(name);
+      }
+      
+      return true;
+    }
+    catch (Exception e)
+    {
+      System.err.println("Unable to install " + name + ": " + e);
+      return false;
+    }
+    catch (LinkageError e)
+    {
+      System.err.println("Unable to install " + name + ": " + e);
+      return false;
+    }
+  }
+  
+  
+  /**
+   * Read a file of UI defaults written by this class as text.
+   * The rows hold the string form of each value, so they can be
+   * shown and compared, but not exported as objects.
+   * 
+   * @param fileName the name of the file
+   * @return the snapshot, named after the file
+   * @throws IOException if the file can't be read, or is not
+   *                     a text file of UI defaults
+   */
+  public static Snapshot readText(final String fileName)
+    throws IOException
+  {
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(new FileInputStream(fileName), ENCODING));
+    try
+    {
+      // Check the header
+      String line = in.readLine();
+      if (!TEXT_HEADER.equals(line))
+      {
+        throw new IOException(fileName + " is not a text file of UI defaults");
+      }
+      
+      // Read the rows
+      List<Defaults> list = new ArrayList<Defaults>(1000);
+      SymbolTable symbols = new SymbolTable();
+      while ((line = in.readLine()) != null)
+      {
+        final int tab1 = line.indexOf('\t');
+        final int tab2 = line.indexOf('\t', tab1 + 1);
+        if ((tab1 < 0) || (tab2 < 0))
+        {
+          continue;
+        }
+        
+        list.add(new Defaults(unescape(line.substring(0, tab1)),
+                              unescape(line.substring(tab2 + 1)),
+                              unescape(line.substring(tab1 + 1, tab2)),
+                              symbols));
+      }
+      
+      // The file should be sorted, but sort it in case it was edited
+      Collections.sort(list);
+      return new Snapshot(new File(fileName).getName(), list);
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+  
+  
+  /**
+   * Undo the escaping done by writeTextField().
+   * 
+   * @param field the escaped field
+   * @return the original string
+   */
+  private static String unescape(final String field)
+  {
+    if (field.indexOf('\\') < 0)
+    {
+      return field;
+    }
+    
+    final int len = field.length();
+    StringBuilder sb = new StringBuilder(len);
+    for (int i = 0; i < len; ++i)
+    {
+      char ch = field.charAt(i);
+      if ((ch == '\\') && ((i + 1) < len))
+      {
+        ch = field.charAt(++i);
+        switch (ch)
+        {
+          case 't': ch = '\t'; break;
+          case 'n': ch = '\n'; break;
+          case 'r': ch = '\r'; break;
+          default: break;
+        }
+      }
+      sb.append(ch);
+    }
+    
+    return sb.toString();
+  }
+  
+  
+  /**
+   * Write the data as JSON.
+   * 
+   * @param snapshot the UI defaults, or null
+   * @param props the system properties, or null
+   * @param out the output
+   * @throws IOException if the output can't be written
+   * @throws InterruptedException if the thread is interrupted
+   * @throws ExecutionException if the UI defaults can't be exported
+   */
+  private static void writeJSON(final Snapshot snapshot,
+                                final List<SysProps> props,
+                                final Writer out)
+    throws IOException, InterruptedException, ExecutionException
+  {
+    JSONWriter writer = new JSONWriter(out);
+    if (snapshot != null)
+    {
+      SnapshotExporter.write(snapshot, writer);
+    }
+    else
+    {
+      writer.beginObject();
+      for (SysProps sp : props)
+      {
+        writer.name(sp.getKey()).value(sp.getValue());
+      }
+      writer.endObject();
+    }
+    
+    if (writer.checkError())
+    {
+      throw writer.getError();
+    }
+    out.write(Utility.getLineSeparator());
+  }
+  
+  
+  /**
+   * Write the data one row per line, as CSV or as tab-separated
+   * text.  The first line holds the column names.
+   * 
+   * @param snapshot the UI defaults, or null
+   * @param props the system properties, or null
+   * @param csv whether to write CSV
+   * @param out the output
+   * @throws IOException if the output can't be written
+   */
+  private static void writeRows(final Snapshot snapshot,
+                                final List<SysProps> props,
+                                final boolean csv,
+                                final Writer out)
+    throws IOException
+  {
+    final String eol = Utility.getLineSeparator();
+    if (snapshot != null)
+    {
+      if (csv)
+      {
+        writeRow(out, csv, "Key", "Class", "Value");
+      }
+      else
+      {
+        out.write(TEXT_HEADER);
+      }
+      out.write(eol);
+      final int size = snapshot.size();
+      for (int i = 0; i < size; ++i)
+      {
+        Defaults def = snapshot.get(i);
+        writeRow(out, csv, def.getKey(), def.getValueClass(), def.getValue());
+        out.write(eol);
+      }
+    }
+    else
+    {
+      writeRow(out, csv, "Key", "Value");
+      out.write(eol);
+      for (SysProps sp : props)
+      {
+        writeRow(out, csv, sp.getKey(), sp.getValue());
+        out.write(eol);
+      }
+    }
+  }
+  
+  
+  /**
+   * Write the fields of one row.
+   * 
+   * @param out the output
+   * @param csv whether to write CSV
+   * @param fields the fields
+   * @throws IOException if the output can't be written
+   */
+  private static void writeRow(final Writer out, final boolean csv,
+                               final String... fields)
+    throws IOException
+  {
+    for (int i = 0; i < fields.length; ++i)
+    {
+      if (i > 0)
+      {
+        out.write(csv ? ',' : '\t');
+      }
+      
+      if (csv)
+      {
+        writeCSVField(out, fields[i]);
+      }
+      else
+      {
+        writeTextField(out, fields[i]);
+      }
+    }
+  }
+  
+  
+  /**
+   * Write a CSV field, quoting it if it holds a comma, a quote or
+   * a line break.
+   * 
+   * @param out the output
+   * @param field the field
+   * @throws IOException if the output can't be written
+   */
+  private static void writeCSVField(final Writer out, final String field)
+    throws IOException
+  {
+    if ((field.indexOf(',') < 0) && (field.indexOf('"') < 0) &&
+        (field.indexOf('\n') < 0) && (field.indexOf('\r') < 0))
+    {
+      out.write(field);
+      return;
+    }
+    
+    out.write('"');
+    out.write(field.replace("\"", "\"\""));
+    out.write('"');
+  }
+  
+  
+  /**
+   * Write a text field, escaping tabs, line breaks and backslashes
+   * so each row stays on one line.
+   * 
+   * @param out the output
+   * @param field the field
+   * @throws IOException if the output can't be written
+   */
+  private static void writeTextField(final Writer out, final String field)
+    throws IOException
+  {
+    final int len = field.length();
+    for (int i = 0; i < len; ++i)
+    {
+      final char ch = field.charAt(i);
+      switch (ch)
+      {
+        case '\\': out.write("\\\\"); break;
+        case '\t': out.write("\\t"); break;
+        case '\n': out.write("\\n"); break;
+        case '\r': out.write("\\r"); break;
+        default: out.write(ch); break;
+      }
+    }
+  }
+}
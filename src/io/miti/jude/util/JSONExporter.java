@@ -11,16 +11,32 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Export an object to a JSON file.
+ * Export an object to a JSON file.  The exporter holds no state
+ * between calls; each export keeps its output in its own context,
+ * so one instance can be used by several threads at once.
+ * 
+ * Objects are only written once per export; later references to
+ * the same object are written as { "$ref" : "path" }, where the
+ * path gives the location of the first copy (such as
+ * $['a']['b.c'][2]).
+ * The depth, the number of values and the size of the output
+ * are limited, so any object graph is exported in bounded time
+ * and memory.  Where a limit cuts the output short, the affected
+ * object or array gets a "$truncated" entry naming the limit.
  * 
  * @author mwallace
  * @version 1.0
@@ -30,52 +46,72 @@ public final class JSONExporter
   /**
    * The one instance of this class.
    */
-  private static final JSONExporter exporter = new JSONExporter();
+  private static final JSONExporter exporter =
+    new JSONExporter(32, 100000, 10000000L);
   
   /**
-   * Used to export the data to a print stream.
+   * The name used for references to objects already written.
    */
-  private java.io.PrintStream printStream = null;
+  private static final String REF = "$ref";
   
   /**
-   * Used to export the data to a file.
+   * The name used to mark output cut short by a limit.
    */
-  private java.io.BufferedWriter bufferedWriter = null;
+  private static final String TRUNCATED = "$truncated";
   
   /**
-   * Used to export the data to a String.
+   * The accessors for the exported fields of each class.  These
+   * are computed the first time an object of the class is
+   * exported, and reused for every later object.
    */
-  private StringBuilder stringWriter = null;
+  private static final ClassValue<FieldAccessor[]> accessors =
+    new ClassValue<FieldAccessor[]>()
+    {
+      @Override
+      protected FieldAccessor[] computeValue(final Class<?> type)
+      {
+        return getAccessors(type);
+      }
+    };
   
   /**
-   * The line terminator for this OS.
+   * The maximum nesting depth of objects and arrays.
    */
-  private String lineTerminator = null;
+  private final int maxDepth;
   
   /**
-   * Whether to append a newline when exporting to a string.
+   * The maximum number of values to write.
    */
-  private boolean appendNewlineToString = false;
+  private final int maxNodes;
   
   /**
-   * The delta to increase the indentation by.
+   * The maximum number of characters to write.
    */
-  private static final int INDENT_DELTA = 2;
+  private final long maxSize;
   
   
   /**
-   * Default constructor.
+   * Create an exporter with the given limits.  Once a limit is
+   * reached, the remaining values are skipped.
+   * 
+   * @param nMaxDepth the maximum nesting depth of objects and arrays
+   * @param nMaxNodes the maximum number of values to write
+   * @param nMaxSize the maximum number of characters to write
    */
-  private JSONExporter()
+  public JSONExporter(final int nMaxDepth, final int nMaxNodes,
+                      final long nMaxSize)
   {
     super();
+    maxDepth = nMaxDepth;
+    maxNodes = nMaxNodes;
+    maxSize = nMaxSize;
   }
   
   
   /**
-   * Get the one instance of this class.
+   * Get the shared instance of this class, with the default limits.
    * 
-   * @return the one instance of this class
+   * @return the shared instance of this class
    */
   public static JSONExporter getInstance()
   {
@@ -111,497 +147,262 @@ public final class JSONExporter
   
   
   /**
-   * Write out the line to the output buffer.
+   * Check whether this field should be exported.
    * 
-   * @param line the line of text to print out
+   * @param f the field to consider
+   * @return whether the field should be exported
    */
-  private void writeLine(final String line)
+  private static boolean useField(final Field f)
   {
-    // Check how we should write out the data
-    if (printStream != null)
+    // Check for null
+    if (f == null)
     {
-      printStream.println(line);
+      return false;
     }
-    else if (bufferedWriter != null)
+    
+    // Get the modifiers and check its state
+    final int mods = f.getModifiers();
+    
+    // If it's a static final object, don't export it
+    if ((Modifier.isStatic(mods)) && (Modifier.isFinal(mods)))
     {
-      try
+      // We don't like this field, so return false
+      return false;
+    }
+    else if (Modifier.isTransient(mods))
+    {
+      // Let's not export transient fields
+      return false;
+    }
+    
+    // Export this field
+    return true;
+  }
+  
+  
+  /**
+   * Build the accessors for the exported fields declared in a class.
+   * Fields that can't be made accessible (such as fields in classes
+   * of modules that are not open) are skipped.
+   * 
+   * @param type the class
+   * @return the accessors for the class's exported fields
+   */
+  private static FieldAccessor[] getAccessors(final Class<?> type)
+  {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    final MethodType getterType = MethodType.methodType(Object.class, Object.class);
+    List<FieldAccessor> list = new ArrayList<FieldAccessor>();
+    for (Field f : type.getDeclaredFields())
+    {
+      // If we're not using this field, skip it
+      if (!useField(f))
       {
-        bufferedWriter.write(line);
-        bufferedWriter.write(lineTerminator);
+        continue;
       }
-      catch (IOException e)
+      
+      try
       {
-        e.printStackTrace();
+        // Make the field accessible, and get a method handle that
+        // takes the object and returns the field value as an Object
+        f.setAccessible(true);
+        MethodHandle getter = lookup.unreflectGetter(f);
+        if (Modifier.isStatic(f.getModifiers()))
+        {
+          getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        list.add(new FieldAccessor(f.getName(), getter.asType(getterType)));
       }
-    }
-    else if (stringWriter != null)
-    {
-      stringWriter.append(line);
-      if (appendNewlineToString)
+      catch (IllegalAccessException e)
       {
-        stringWriter.append(lineTerminator);
+        Logger.error("IAccessE for " + f.getName() + ": " + e.getMessage());
       }
-      else
+      catch (RuntimeException e)
       {
-        stringWriter.append(' ');
+        Logger.debug("Skipping " + f.getName() + ": " + e.getMessage());
       }
     }
-    else
-    {
-      System.out.println(line);
-    }
+    
+    return list.toArray(new FieldAccessor[list.size()]);
   }
   
   
   /**
-   * Write out the line to the output buffer with no newline at the end.
+   * Write the fields of the object as the members of the
+   * current JSON object.
    * 
-   * @param line the line of text to print out
+   * @param o the object to export
+   * @param ctx the context of the current export
    */
-  private void write(final String line)
+  private void writeFields(final Object o, final Context ctx)
   {
-    // Check how we should write out the data
-    if (printStream != null)
-    {
-      printStream.print(line);
-    }
-    else if (bufferedWriter != null)
+    // Iterate over the fields of the object's class, exporting
+    // them one at a time
+    for (FieldAccessor accessor : accessors.get(o.getClass()))
     {
+      if (!hasRoom(ctx))
+      {
+        ctx.writer.name(TRUNCATED).value(ctx.truncated);
+        break;
+      }
+      
+      final Object value;
       try
       {
-        bufferedWriter.write(line);
+        value = accessor.get(o);
       }
-      catch (IOException e)
+      catch (RuntimeException e)
       {
-        e.printStackTrace();
+        Logger.debug("Skipping " + accessor.name + ": " + e.getMessage());
+        continue;
       }
-    }
-    else if (stringWriter != null)
-    {
-      stringWriter.append(line).append(' ');
-    }
-    else
-    {
-      System.out.print(line);
+      
+      ctx.writer.name(accessor.name);
+      ctx.setMember(accessor.name);
+      writeValue(value, ctx);
     }
   }
   
   
   /**
-   * Return a string containing the specified number of spaces.  Used
-   * to create the indention space for a section.
+   * Write the value.  Simple types are written directly; maps,
+   * collections and arrays are written with each element, and
+   * other objects are written with their fields.  Objects that
+   * were already written are written as references.
    * 
-   * @param indent the number of spaces
-   * @return the string containing spaces
+   * @param value the value to write
+   * @param ctx the context of the current export
    */
-  private String getIndent(final int indent)
+  private void writeValue(final Object value, final Context ctx)
   {
-    // Handle some common cases for indent
-    switch (indent)
+    final JSONWriter writer = ctx.writer;
+    ++ctx.nodes;
+    if (writeSimpleType(value, writer))
     {
-      case 0: return "";
-      case 1: return " ";
-      case 2: return "  ";
-      case 3: return "   ";
-      case 4: return "    ";
-      case 5: return "     ";
-      case 6: return "      ";
-      case 7: return "       ";
-      case 8: return "        ";
-      case 9: return "         ";
-      default: break;
+      return;
     }
     
-    // None of the above cases were met, so build the string one
-    // character at a time
-    StringBuilder sb = new StringBuilder(indent);
-    for (int i = 0; i < indent; ++i)
+    // Check whether the object was already written
+    final Path previous = ctx.visited.get(value);
+    if (previous != null)
     {
-      sb.append(' ');
+      writer.beginObject().name(REF).value(previous.toString()).endObject();
+      return;
     }
     
-    // Return the string
-    return sb.toString();
-  }
-  
-  
-  /**
-   * Method to quote a string, if desired and the string is not null.
-   * 
-   * @param value the string
-   * @param quoteValue whether the string should be quoted
-   * @return the quoted or unmodified string
-   */
-  private static String quoteStr(final String value, final boolean quoteValue)
-  {
-    // Check for whether it's null, or should not be quoted
-    if ((!quoteValue) || (value == null))
+    // Check the depth
+    if (ctx.depth >= maxDepth)
     {
-      return value;
+      writer.beginObject().name(TRUNCATED).value("depth").endObject();
+      return;
     }
     
-    StringBuilder sb = new StringBuilder(40);
-    sb.append("\"").append(value).append("\"");
-    return sb.toString();
-  }
-  
-  
-  /**
-   * Build the line of data to write out.
-   * 
-   * @param varName the name of the variable
-   * @param varValue the value of the variable
-   * @param quoteValue whether to put quotes around the value
-   * @param indent the number of spaces to indent the line
-   * @param addComma whether to append a comma to the end of the line
-   */
-  private void writeData(final String varName, final String varValue,
-                         final boolean quoteValue, final int indent,
-                         final boolean addComma)
-  {
-    writeData(varName, varValue, quoteValue, indent, addComma, true);
-  }
-  
-  
-  /**
-   * Build the line of data to write out.
-   * 
-   * @param varName the name of the variable
-   * @param varValue the value of the variable
-   * @param quoteValue whether to put quotes around the value
-   * @param indent the number of spaces to indent the line
-   * @param addComma whether to append a comma to the end of the line
-   * @param newLine whether to append a newline
-   */
-  private void writeData(final String varName, final String varValue,
-                         final boolean quoteValue, final int indent,
-                         final boolean addComma, final boolean newLine)
-  {
-    StringBuilder sb = new StringBuilder(100);
-    final String outValue = quoteStr(varValue, quoteValue);
-    if (varName == null)
+    // Save where the object is written, and step into it
+    final Path parent = ctx.path;
+    ctx.path = new Path(parent, ctx.memberName, ctx.memberIndex);
+    ctx.visited.put(value, ctx.path);
+    ++ctx.depth;
+    
+    if (value instanceof Map)
     {
-      sb.append(getIndent(indent))
-        .append(outValue);
-      if (addComma)
+      // Handle maps, using the string form of each key as the name
+      writer.beginObject();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
       {
-        sb.append(",");
+        if (!hasRoom(ctx))
+        {
+          writer.name(TRUNCATED).value(ctx.truncated);
+          break;
+        }
+        
+        final String name = String.valueOf(entry.getKey());
+        writer.name(name);
+        ctx.setMember(name);
+        writeValue(entry.getValue(), ctx);
       }
+      writer.endObject();
     }
-    else if (varValue == null)
+    else if (value instanceof Collection)
     {
-      sb.append(getIndent(indent))
-        .append("\"")
-        .append(varName)
-        .append("\" : null");
-      if (addComma)
+      // Handle lists, sets, queues, etc.
+      writer.beginArray();
+      int index = 0;
+      for (Object obj : (Collection<?>) value)
       {
-        sb.append(",");
+        if (!hasRoom(ctx))
+        {
+          writeTruncated(ctx);
+          break;
+        }
+        
+        ctx.setElement(index++);
+        writeValue(obj, ctx);
       }
+      writer.endArray();
     }
-    else
+    else if (value.getClass().isArray())
     {
-      sb.append(getIndent(indent))
-        .append("\"")
-        .append(varName)
-        .append("\" : ")
-        .append(outValue);
-      if (addComma)
+      // Handle arrays
+      writer.beginArray();
+      final int len = Array.getLength(value);
+      for (int index = 0; index < len; ++index)
       {
-        sb.append(",");
+        if (!hasRoom(ctx))
+        {
+          writeTruncated(ctx);
+          break;
+        }
+        
+        ctx.setElement(index);
+        writeValue(Array.get(value, index), ctx);
       }
-    }
-    
-    if (newLine)
-    {
-      writeLine(sb.toString());
+      writer.endArray();
     }
     else
     {
-      write(sb.toString());
-    }
-  }
-  
-  
-  /**
-   * Return the index (in fields) of the last field of interest.
-   * Currently, this means the last field that is not static or
-   * transient.
-   * 
-   * @param fields the array of Fields for the object
-   * @return the index of the last field of interest
-   */
-  private int getLastFieldOfInterest(final Field[] fields)
-  {
-    // Check the input parameter
-    if ((fields == null) || (fields.length < 1))
-    {
-      return 0;
+      // Write out a simple object with subfields
+      writer.beginObject();
+      writeFields(value, ctx);
+      writer.endObject();
     }
     
-    // Iterate over the list of fields, starting at the end, and
-    // backtrack until we hit a field that satisfies the filter
-    final int size = fields.length;
-    int lastGoodIndex = -1;
-    for (int index = size - 1; index >= 0; --index)
-    {
-      Field f = fields[index];
-      if (useField(f))
-      {
-        // We like this field, so return
-        lastGoodIndex = index;
-        break;
-      }
-    }
-    
-    return lastGoodIndex;
+    // Step back out of the object
+    --ctx.depth;
+    ctx.path = parent;
   }
   
   
   /**
-   * Check whether this field should be exported.
+   * Return whether there is room for another value within the
+   * limits on the number of values and the size of the output.
+   * If not, the name of the limit is saved in the context.
    * 
-   * @param f the field to consider
-   * @return whether the field should be exported
+   * @param ctx the context of the current export
+   * @return whether another value can be written
    */
-  private boolean useField(final Field f)
+  private boolean hasRoom(final Context ctx)
   {
-    // Check for null
-    if (f == null)
+    if (ctx.nodes >= maxNodes)
     {
-      return false;
+      ctx.truncated = "nodes";
     }
-    
-    // Get the modifiers and check its state
-    final int mods = f.getModifiers();
-    
-    // If it's a static final object, don't export it
-    if ((Modifier.isStatic(mods)) && (Modifier.isFinal(mods)))
+    else if (ctx.writer.getCount() >= maxSize)
     {
-      // We don't like this field, so return false
-      return false;
-    }
-    else if (Modifier.isTransient(mods))
-    {
-      // Let's not export transient fields
-      return false;
+      ctx.truncated = "size";
     }
     
-    // Export this field
-    return true;
+    return (ctx.truncated == null);
   }
   
   
   /**
-   * Export the object to the output buffer, indenting the section the
-   * specified number of spaces.
+   * Write the element that marks an array cut short by a limit.
    * 
-   * @param o the object to export
-   * @param indent the number of spaces to indent each line in the section
+   * @param ctx the context of the current export
    */
-  private void export(final Object o, final int indent)
+  private static void writeTruncated(final Context ctx)
   {
-    // Get the class for this object, and use that to get the fields
-    Class<? extends Object> c = o.getClass();
-    Field[] fields = c.getDeclaredFields();
-    final int numFields = fields.length;
-    if (numFields == 0)
-    {
-      // No fields in the object
-      return;
-    }
-    
-    // Get the index of the last field to export.  We have to do this
-    // in case the last field in fields may be static or have some
-    // condition causing us not to want to export it.
-    final int lastFieldOfInterest = getLastFieldOfInterest(fields);
-    if (lastFieldOfInterest < 0)
-    {
-      // There are no fields to export, so return
-      return;
-    }
-    
-    // Iterate over the fields, exporting them one at a time
-    for (int i = 0; i <= lastFieldOfInterest; ++i)
-    {
-      // Get the current field and make it accessible
-      final Field f = fields[i];
-      f.setAccessible(true);
-      
-      // If we're not using this field, skip it
-      if (!useField(f))
-      {
-        continue;
-      }
-      
-      // Save whether there are additional fields of interest after this one
-      final boolean addComma = (i < lastFieldOfInterest);
-      
-      // Save the name of the field
-      final String name = f.getName();
-      
-      // Search for the field type
-      try
-      {
-        final Object value = f.get(o);
-        if (f.isEnumConstant())
-        {
-          throw new RuntimeException("Enum constant found");
-        }
-        else if (!writeSimpleType(value, name, indent, addComma, true))
-        {
-          if (value instanceof Map)
-          {
-            // Handle maps
-            Map<?, ?> values = (Map<?, ?>) value;
-            if (values.size() < 1)
-            {
-              // No elements
-              writeData(name, "[]", false, indent, addComma);
-            }
-            else
-            {
-              // Iterate over the elements
-              writeData(name, "", false, indent, false);
-              writeLine(getIndent(indent) + "[");
-              final int setSize = values.size();
-              int currIndex = 0;
-              for (java.util.Map.Entry<?, ?> entrySet : values.entrySet())
-              {
-                Object key = entrySet.getKey();
-                final boolean hasMore = (currIndex < (setSize - 1));
-                ++currIndex;
-                if (key != null)
-                {
-                  Object data = values.get(key);
-                  if (data != null)
-                  {
-                    // Build the output string of the key and then the data string.  This
-                    // needs to be done recursively, in case data is a map or similar.
-                    // If key is a simple type, just spit it out followed by " : <data>".
-                    // Else, call export() to write that out as " {...} : ".
-                    
-                    // First export the key
-                    if (writeSimpleType(key, null, indent + INDENT_DELTA, false, false))
-                    {
-                      write(" : ");
-                    }
-                    else
-                    {
-                      // The key is a collection, map or compound object.
-                      writeLine(getIndent(indent + INDENT_DELTA) + "{");
-                      export(key, indent + (INDENT_DELTA * 2));
-                      write(getIndent(indent + INDENT_DELTA) + "} : ");
-                    }
-                    
-                    // Now export the data
-                    if (!writeSimpleType(data, null, 0, hasMore, true))
-                    {
-                      writeLine("");
-                      writeLine(getIndent(indent + INDENT_DELTA + 2) + "{");
-                      export(data, indent + (INDENT_DELTA * 3));
-                      writeLine(getIndent(indent + INDENT_DELTA + 2) + "}" +
-                          (hasMore ? "," : ""));
-                    }
-                  }
-                }
-              }
-              writeData(null, "]", false, indent, addComma);
-            }
-          }
-          else if (value instanceof Collection)
-          {
-            // Handle lists, sets, queues, etc.
-            final Collection<?> values = (Collection<?>) value;
-            Iterator<?> iter = values.iterator();
-            if (!iter.hasNext())
-            {
-              // No elements
-              writeData(name, "[]", false, indent, addComma);
-            }
-            else
-            {
-              // Iterate over the elements
-              writeData(name, "", false, indent, false);
-              writeLine(getIndent(indent) + "[");
-              while (iter.hasNext())
-              {
-                Object obj = iter.next();
-                final boolean hasMore = iter.hasNext();
-                if (obj == null)
-                {
-                  writeData(null, "null", false, indent + INDENT_DELTA, hasMore);
-                }
-                else if (!writeSimpleType(obj, null, indent + INDENT_DELTA,
-                                          hasMore, true))
-                {
-                  writeLine(getIndent(indent + INDENT_DELTA) + "{");
-                  export(obj, indent + INDENT_DELTA + INDENT_DELTA);
-                  writeLine(getIndent(indent + INDENT_DELTA) + "}" +
-                            (hasMore ? "," : ""));
-                }
-              }
-              writeData(null, "]", false, indent, addComma);
-            }
-          }
-          else if (value.getClass().isArray())
-          {
-            // See if the array has any elements
-            int len = Array.getLength(value);
-            if (len == 0)
-            {
-              // The array is empty
-              writeData(name, "[]", false, indent, addComma);
-            }
-            else
-            {
-              writeData(name, "", false, indent, false);
-              writeLine(getIndent(indent) + "[");
-              for (int index = 0; index < len; ++index)
-              {
-                // Store whether there are additional elements
-                final boolean hasMore = (index < (len - 1));
-                
-                // Get the current object
-                Object obj = Array.get(value, index);
-                
-                if (obj == null)
-                {
-                  writeData(null, "null", false, indent + INDENT_DELTA, hasMore);
-                }
-                else if (!writeSimpleType(obj, null, indent + INDENT_DELTA,
-                                          hasMore, true))
-                {
-                  writeLine(getIndent(indent + INDENT_DELTA) + "{");
-                  export(obj, indent + INDENT_DELTA + INDENT_DELTA);
-                  writeLine(getIndent(indent + INDENT_DELTA) + "}" +
-                            (hasMore ? "," : ""));
-                }
-              }
-              writeData(null, "]", false, indent, addComma);
-            }
-          }
-          else
-          {
-            // Write out a simple object with subfields
-            writeData(name, "", false, indent, false);
-            writeLine(getIndent(indent) + "{");
-            export(value, indent + INDENT_DELTA);
-            writeLine(getIndent(indent) + "}" + (addComma ? "," : ""));
-          }
-        }
-      }
-      catch (IllegalArgumentException e)
-      {
-        System.err.println("IArgE for " + name + ": " + e.getMessage());
-        e.printStackTrace();
-      }
-      catch (IllegalAccessException e)
-      {
-        System.err.println("IAccessE for " + name + ": " + e.getMessage());
-        e.printStackTrace();
-      }
-    }
+    ctx.writer.beginObject().name(TRUNCATED).value(ctx.truncated).endObject();
   }
   
   
@@ -610,40 +411,39 @@ public final class JSONExporter
    * write out the value.
    * 
    * @param value the object to check
-   * @param name the variable name
-   * @param indent the amount to indent
-   * @param addComma whether to append a comma
-   * @param newLine whether to append a newline
+   * @param writer the JSON writer
    * @return whether the object was written out
    */
-  private boolean writeSimpleType(final Object value, final String name,
-                                  final int indent, final boolean addComma,
-                                  final boolean newLine)
+  private static boolean writeSimpleType(final Object value,
+                                         final JSONWriter writer)
   {
     if (value == null)
     {
-      writeData(name, "null", false, indent, addComma, newLine);
+      writer.nullValue();
     }
     else if (value instanceof String)
     {
-      writeData(name, value.toString(), true, indent, addComma, newLine);
+      writer.value((String) value);
     }
     else if (value instanceof Number)
     {
-      writeData(name, ((Number) value).toString(), false, indent, addComma, newLine);
+      writer.value((Number) value);
     }
     else if (value instanceof Character)
     {
-      writeData(name, ((Character) value).toString(), false, indent, addComma, newLine);
+      writer.value(value.toString());
     }
     else if (value instanceof Boolean)
     {
-      writeData(name, ((Boolean) value).toString(), false, indent, addComma, newLine);
+      writer.value(((Boolean) value).booleanValue());
     }
     else if (value instanceof Date)
     {
-      writeData(name, Long.toString(((Date) value).getTime()), false,
-                indent, addComma, newLine);
+      writer.value(((Date) value).getTime());
+    }
+    else if (value instanceof Enum)
+    {
+      writer.value(((Enum<?>) value).name());
     }
     else
     {
@@ -655,11 +455,12 @@ public final class JSONExporter
   
   
   /**
-   * Export the object.
+   * Export the object as a complete document, and flush the writer.
    * 
    * @param obj the object to export
+   * @param writer the writer to export to
    */
-  private void export(final Object obj)
+  private void writeDocument(final Object obj, final JSONWriter writer)
   {
     // Check for null
     if (obj == null)
@@ -668,9 +469,20 @@ public final class JSONExporter
     }
     
     // Export the object
-    writeLine("{");
-    export(obj, INDENT_DELTA);
-    writeLine("}");
+    writeValue(obj, new Context(writer));
+    writer.flush();
+  }
+  
+  
+  /**
+   * Export the object as the next value of a JSON writer.
+   * 
+   * @param obj the object to export
+   * @param pWriter the writer to export to
+   */
+  public void export(final Object obj, final JSONWriter pWriter)
+  {
+    writeValue(obj, new Context(pWriter));
   }
   
   
@@ -678,27 +490,23 @@ public final class JSONExporter
    * Export the object to a String.
    * 
    * @param obj the object to export
-   * @param appendNewline whether to append a newline after each JSON object
+   * @param appendNewline whether to write each value on its own line
    * @return the object in JSON format, as a string
    */
   public String export(final Object obj, final boolean appendNewline)
   {
-    lineTerminator = System.getProperty("line.separator");
-    appendNewlineToString = appendNewline;
-    
     // Allocate the string builder
-    stringWriter = new StringBuilder(500);
+    StringBuilder sb = new StringBuilder(500);
     
     // Export
-    export(obj);
-    
-    // Copy the string, and then clear out the buffer
-    String output = stringWriter.toString();
-    stringWriter.setLength(0);
-    stringWriter = null;
+    writeDocument(obj, new JSONWriter(sb, appendNewline));
+    if (appendNewline && (sb.length() > 0))
+    {
+      sb.append(Utility.getLineSeparator());
+    }
     
     // Return the generated string
-    return output;
+    return sb.toString();
   }
   
   
@@ -710,14 +518,9 @@ public final class JSONExporter
    */
   public void export(final Object obj, final PrintStream pPrintStream)
   {
-    // Save the print stream
-    printStream = pPrintStream;
-    
     // Export
-    export(obj);
-    
-    // Kill the print stream
-    printStream = null;
+    writeDocument(obj, new JSONWriter(pPrintStream));
+    pPrintStream.println();
   }
   
   
@@ -735,43 +538,265 @@ public final class JSONExporter
       return;
     }
     
-    // Set up the line terminator
-    lineTerminator = System.getProperty("line.separator");
-    
     // Set up the output writer
+    BufferedWriter bufferedWriter = null;
     try
     {
       bufferedWriter = new BufferedWriter(new FileWriter(fileName));
+      
+      // Export
+      JSONWriter writer = new JSONWriter(bufferedWriter);
+      writeDocument(obj, writer);
+      if (writer.checkError())
+      {
+        Logger.error("Exception writing " + fileName + ": " +
+                     writer.getError().getMessage());
+      }
+      
+      bufferedWriter.write(Utility.getLineSeparator());
+      bufferedWriter.close();
+      bufferedWriter = null;
     }
     catch (IOException e)
     {
-      e.printStackTrace();
-      bufferedWriter = null;
+      Logger.error("Exception writing " + fileName + ": " + e.getMessage());
+    }
+    finally
+    {
+      // Close the file
+      if (bufferedWriter != null)
+      {
+        try
+        {
+          bufferedWriter.close();
+        }
+        catch (IOException e)
+        {
+          Logger.error(e);
+        }
+      }
     }
+  }
+  
+  
+  /**
+   * The name of an exported field, and a method handle that
+   * reads its value.
+   */
+  private static final class FieldAccessor
+  {
+    /**
+     * The name of the field.
+     */
+    private final String name;
+    
+    /**
+     * The getter, of type (Object)Object.
+     */
+    private final MethodHandle getter;
+    
     
-    // Check the result
-    if (bufferedWriter == null)
+    /**
+     * Create an accessor.
+     * 
+     * @param sName the name of the field
+     * @param pGetter the getter, of type (Object)Object
+     */
+    public FieldAccessor(final String sName, final MethodHandle pGetter)
     {
-      return;
+      name = sName;
+      getter = pGetter;
     }
     
-    // Export
-    export(obj);
     
-    // Close the writer
-    if (bufferedWriter != null)
+    /**
+     * Return the value of the field in an object.
+     * 
+     * @param obj the object
+     * @return the value of the field
+     */
+    public Object get(final Object obj)
     {
       try
       {
-        bufferedWriter.close();
+        return (Object) getter.invokeExact(obj);
+      }
+      catch (RuntimeException e)
+      {
+        throw e;
+      }
+      catch (Error e)
+      {
+        throw e;
       }
-      catch (IOException e)
+      catch (Throwable t)
       {
-        e.printStackTrace();
+        throw new IllegalStateException(t);
       }
     }
+  }
+  
+  
+  /**
+   * The location of an object in the output, as a link to the
+   * location of its parent.  The string form is only built when
+   * a reference to the object is written.
+   */
+  private static final class Path
+  {
+    /**
+     * The location of the parent, or null for the top level.
+     */
+    private final Path parent;
+    
+    /**
+     * The member name in the parent object, or null if the
+     * parent is an array.
+     */
+    private final String name;
+    
+    /**
+     * The index in the parent array.
+     */
+    private final int index;
+    
     
-    // Kill the buffer
-    bufferedWriter = null;
+    /**
+     * Create a location.
+     * 
+     * @param pParent the location of the parent
+     * @param sName the member name in the parent object, or null
+     * @param nIndex the index in the parent array
+     */
+    public Path(final Path pParent, final String sName, final int nIndex)
+    {
+      parent = pParent;
+      name = sName;
+      index = nIndex;
+    }
+    
+    
+    /**
+     * Return the location as a string, such as $['a']['b.c'][2].
+     * Member names are quoted, with any quote or backslash escaped,
+     * since keys such as Button.background contain dots.
+     * 
+     * @return the location as a string
+     */
+    @Override
+    public String toString()
+    {
+      if (parent == null)
+      {
+        return "$";
+      }
+      
+      StringBuilder sb = new StringBuilder(parent.toString());
+      if (name != null)
+      {
+        sb.append("['");
+        for (int i = 0; i < name.length(); ++i)
+        {
+          final char ch = name.charAt(i);
+          if ((ch == '\'') || (ch == '\\'))
+          {
+            sb.append('\\');
+          }
+          sb.append(ch);
+        }
+        sb.append("']");
+      }
+      else
+      {
+        sb.append('[').append(index).append(']');
+      }
+      
+      return sb.toString();
+    }
+  }
+  
+  
+  /**
+   * The state of one export.  A new context is created for each
+   * call, so exports running at the same time do not share any
+   * state.
+   */
+  private static final class Context
+  {
+    /**
+     * The writer for the export.
+     */
+    private final JSONWriter writer;
+    
+    /**
+     * The location of each object written so far.
+     */
+    private final IdentityHashMap<Object, Path> visited =
+      new IdentityHashMap<Object, Path>();
+    
+    /**
+     * The location of the object or array being written.
+     */
+    private Path path = null;
+    
+    /**
+     * The member name of the next value, or null if the next
+     * value is an array element.
+     */
+    private String memberName = null;
+    
+    /**
+     * The array index of the next value.
+     */
+    private int memberIndex = 0;
+    
+    /**
+     * The current nesting depth.
+     */
+    private int depth = 0;
+    
+    /**
+     * The number of values written.
+     */
+    private int nodes = 0;
+    
+    /**
+     * The name of the limit that cut the output short, or null.
+     */
+    private String truncated = null;
+    
+    
+    /**
+     * Create the context for an export.
+     * 
+     * @param pWriter the writer for the export
+     */
+    public Context(final JSONWriter pWriter)
+    {
+      writer = pWriter;
+    }
+    
+    
+    /**
+     * Set the next value to be the member of an object.
+     * 
+     * @param name the member name
+     */
+    public void setMember(final String name)
+    {
+      memberName = name;
+    }
+    
+    
+    /**
+     * Set the next value to be the element of an array.
+     * 
+     * @param index the array index
+     */
+    public void setElement(final int index)
+    {
+      memberName = null;
+      memberIndex = index;
+    }
   }
 }
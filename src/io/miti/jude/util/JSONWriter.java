@@ -0,0 +1,600 @@
+/**
+ * @(#)JSONWriter.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Write JSON directly to an Appendable (such as a Writer or a
+ * StringBuilder), one token at a time.  The writer tracks the
+ * nesting, so commas and indentation are added automatically,
+ * and strings are escaped.
+ * 
+ * As with PrintWriter, methods do not throw IOException.  The
+ * first exception is saved, later output is dropped, and the
+ * caller can check for it with checkError().
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class JSONWriter
+{
+  /**
+   * The number of spaces to indent each level.
+   */
+  private static final int INDENT_DELTA = 2;
+  
+  /**
+   * The indentation strings for the common depths.
+   */
+  private static final String[] INDENTS = new String[32];
+  
+  /**
+   * The hex digits, for escaping control characters.
+   */
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  
+  /**
+   * The output.
+   */
+  private final Appendable out;
+  
+  /**
+   * Whether to write each value on its own line.  If false,
+   * the output is written on a single line.
+   */
+  private final boolean pretty;
+  
+  /**
+   * The line terminator.
+   */
+  private final String lineTerminator;
+  
+  /**
+   * For each open object or array, whether it has any elements
+   * yet.  Index 0 is the top level.
+   */
+  private boolean[] hasElements = new boolean[16];
+  
+  /**
+   * The current nesting depth.
+   */
+  private int depth = 0;
+  
+  /**
+   * Whether a name was just written, so the value goes on
+   * the same line.
+   */
+  private boolean afterName = false;
+  
+  /**
+   * The number of characters written.
+   */
+  private long count = 0L;
+  
+  /**
+   * The first exception thrown by the output.
+   */
+  private IOException error = null;
+  
+  // Build the table of indentation strings
+  static
+  {
+    StringBuilder sb = new StringBuilder(INDENTS.length * INDENT_DELTA);
+    for (int i = 0; i < INDENTS.length; ++i)
+    {
+      INDENTS[i] = sb.toString();
+      for (int j = 0; j < INDENT_DELTA; ++j)
+      {
+        sb.append(' ');
+      }
+    }
+  }
+  
+  
+  /**
+   * Create a writer that writes each value on its own line.
+   * 
+   * @param pOut the output
+   */
+  public JSONWriter(final Appendable pOut)
+  {
+    this(pOut, true);
+  }
+  
+  
+  /**
+   * Create a writer.
+   * 
+   * @param pOut the output
+   * @param bPretty whether to write each value on its own line
+   */
+  public JSONWriter(final Appendable pOut, final boolean bPretty)
+  {
+    out = pOut;
+    pretty = bPretty;
+    lineTerminator = Utility.getLineSeparator();
+  }
+  
+  
+  /**
+   * Create a writer for a fragment of a document: the elements
+   * of an object or array that is nested nDepth levels deep.
+   * The fragment is added to the document with fragment().
+   * 
+   * @param pOut the output
+   * @param bPretty whether to write each value on its own line
+   * @param nDepth the depth of the object or array
+   */
+  public JSONWriter(final Appendable pOut, final boolean bPretty,
+                    final int nDepth)
+  {
+    this(pOut, bPretty);
+    depth = nDepth;
+    if (depth >= hasElements.length)
+    {
+      hasElements = new boolean[depth * 2];
+    }
+  }
+  
+  
+  /**
+   * Start an object.
+   * 
+   * @return this writer
+   */
+  public JSONWriter beginObject()
+  {
+    return open('{');
+  }
+  
+  
+  /**
+   * End the current object.
+   * 
+   * @return this writer
+   */
+  public JSONWriter endObject()
+  {
+    return close('}');
+  }
+  
+  
+  /**
+   * Start an array.
+   * 
+   * @return this writer
+   */
+  public JSONWriter beginArray()
+  {
+    return open('[');
+  }
+  
+  
+  /**
+   * End the current array.
+   * 
+   * @return this writer
+   */
+  public JSONWriter endArray()
+  {
+    return close(']');
+  }
+  
+  
+  /**
+   * Write the name of the next member of the current object.
+   * 
+   * @param name the member name
+   * @return this writer
+   */
+  public JSONWriter name(final String name)
+  {
+    beforeValue();
+    writeString(name);
+    append(" : ");
+    afterName = true;
+    return this;
+  }
+  
+  
+  /**
+   * Write the name of the next member of the current object, given
+   * as two parts that are written as one string.
+   * 
+   * @param prefix the start of the member name
+   * @param suffix the rest of the member name
+   * @return this writer
+   */
+  public JSONWriter name(final String prefix, final String suffix)
+  {
+    beforeValue();
+    append('"');
+    writeChars(prefix);
+    writeChars(suffix);
+    append('"');
+    append(" : ");
+    afterName = true;
+    return this;
+  }
+  
+  
+  /**
+   * Write a string value, or null.
+   * 
+   * @param value the value
+   * @return this writer
+   */
+  public JSONWriter value(final String value)
+  {
+    if (value == null)
+    {
+      return nullValue();
+    }
+    
+    beforeValue();
+    writeString(value);
+    return this;
+  }
+  
+  
+  /**
+   * Write a number value, or null.  NaN and infinite values have
+   * no JSON number form, so they are written as strings ("NaN",
+   * "Infinity" or "-Infinity").
+   * 
+   * @param value the value
+   * @return this writer
+   */
+  public JSONWriter value(final Number value)
+  {
+    if (value == null)
+    {
+      return nullValue();
+    }
+    
+    final String str = value.toString();
+    if (((value instanceof Double) || (value instanceof Float)) &&
+        (Double.isNaN(value.doubleValue()) || Double.isInfinite(value.doubleValue())))
+    {
+      return value(str);
+    }
+    
+    beforeValue();
+    append(str);
+    return this;
+  }
+  
+  
+  /**
+   * Write an integer value.
+   * 
+   * @param value the value
+   * @return this writer
+   */
+  public JSONWriter value(final long value)
+  {
+    beforeValue();
+    append(Long.toString(value));
+    return this;
+  }
+  
+  
+  /**
+   * Write a boolean value.
+   * 
+   * @param value the value
+   * @return this writer
+   */
+  public JSONWriter value(final boolean value)
+  {
+    beforeValue();
+    append(value ? "true" : "false");
+    return this;
+  }
+  
+  
+  /**
+   * Add a fragment as the next elements of the current object
+   * or array.  The fragment must have been written by a writer
+   * created at the current depth.
+   * 
+   * @param fragment the elements, or an empty string for none
+   * @return this writer
+   */
+  public JSONWriter fragment(final CharSequence fragment)
+  {
+    if (fragment.length() == 0)
+    {
+      return this;
+    }
+    
+    if (hasElements[depth])
+    {
+      append(',');
+    }
+    append(fragment);
+    hasElements[depth] = true;
+    return this;
+  }
+  
+  
+  /**
+   * Write a null value.
+   * 
+   * @return this writer
+   */
+  public JSONWriter nullValue()
+  {
+    beforeValue();
+    append("null");
+    return this;
+  }
+  
+  
+  /**
+   * Flush the output, if it can be flushed.
+   */
+  public void flush()
+  {
+    if ((error == null) && (out instanceof Flushable))
+    {
+      try
+      {
+        ((Flushable) out).flush();
+      }
+      catch (IOException e)
+      {
+        error = e;
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the number of characters written so far.
+   * 
+   * @return the number of characters written
+   */
+  public long getCount()
+  {
+    return count;
+  }
+  
+  
+  /**
+   * Return whether the output has thrown an exception.
+   * 
+   * @return whether there was an error writing the output
+   */
+  public boolean checkError()
+  {
+    return (error != null);
+  }
+  
+  
+  /**
+   * Return the first exception thrown by the output.
+   * 
+   * @return the exception, or null if there was no error
+   */
+  public IOException getError()
+  {
+    return error;
+  }
+  
+  
+  /**
+   * Start an object or array.
+   * 
+   * @param ch the opening character
+   * @return this writer
+   */
+  private JSONWriter open(final char ch)
+  {
+    beforeValue();
+    append(ch);
+    
+    // Push the new level
+    ++depth;
+    if (depth >= hasElements.length)
+    {
+      boolean[] larger = new boolean[hasElements.length * 2];
+      System.arraycopy(hasElements, 0, larger, 0, hasElements.length);
+      hasElements = larger;
+    }
+    hasElements[depth] = false;
+    return this;
+  }
+  
+  
+  /**
+   * End an object or array.
+   * 
+   * @param ch the closing character
+   * @return this writer
+   */
+  private JSONWriter close(final char ch)
+  {
+    // Pop the level, and only start a new line if it has elements
+    final boolean empty = !hasElements[depth];
+    --depth;
+    if (!empty)
+    {
+      newLine();
+    }
+    append(ch);
+    return this;
+  }
+  
+  
+  /**
+   * Write the comma and line break before a value, unless it
+   * follows a name.
+   */
+  private void beforeValue()
+  {
+    if (afterName)
+    {
+      afterName = false;
+      return;
+    }
+    
+    if (hasElements[depth])
+    {
+      append(',');
+    }
+    
+    if (depth > 0)
+    {
+      newLine();
+    }
+    hasElements[depth] = true;
+  }
+  
+  
+  /**
+   * Start a new line at the current depth.
+   */
+  private void newLine()
+  {
+    if (!pretty)
+    {
+      append(' ');
+      return;
+    }
+    
+    append(lineTerminator);
+    if (depth < INDENTS.length)
+    {
+      append(INDENTS[depth]);
+    }
+    else
+    {
+      for (int i = 0; i < depth; ++i)
+      {
+        append(INDENTS[1]);
+      }
+    }
+  }
+  
+  
+  /**
+   * Write a quoted, escaped string.
+   * 
+   * @param str the string
+   */
+  private void writeString(final String str)
+  {
+    append('"');
+    writeChars(str);
+    append('"');
+  }
+  
+  
+  /**
+   * Write the characters of a string, escaped, without quotes.
+   * 
+   * @param str the string
+   */
+  private void writeChars(final String str)
+  {
+    // Write runs of characters that need no escaping in one call
+    final int len = str.length();
+    int start = 0;
+    for (int i = 0; i < len; ++i)
+    {
+      final char ch = str.charAt(i);
+      if ((ch >= ' ') && (ch != '"') && (ch != '\\'))
+      {
+        continue;
+      }
+      
+      append(str, start, i);
+      start = i + 1;
+      switch (ch)
+      {
+        case '"': append("\\\""); break;
+        case '\\': append("\\\\"); break;
+        case '\n': append("\\n"); break;
+        case '\r': append("\\r"); break;
+        case '\t': append("\\t"); break;
+        case '\b': append("\\b"); break;
+        case '\f': append("\\f"); break;
+        default:
+          append("\\u00");
+          append(HEX[(ch >> 4) & 0xF]);
+          append(HEX[ch & 0xF]);
+          break;
+      }
+    }
+    
+    append(str, start, len);
+  }
+  
+  
+  /**
+   * Write a string to the output.
+   * 
+   * @param str the string
+   */
+  private void append(final CharSequence str)
+  {
+    append(str, 0, str.length());
+  }
+  
+  
+  /**
+   * Write part of a string to the output.
+   * 
+   * @param str the string
+   * @param start the index of the first character
+   * @param end the index after the last character
+   */
+  private void append(final CharSequence str, final int start, final int end)
+  {
+    if ((error != null) || (start >= end))
+    {
+      return;
+    }
+    
+    try
+    {
+      out.append(str, start, end);
+      count += (end - start);
+    }
+    catch (IOException e)
+    {
+      error = e;
+    }
+  }
+  
+  
+  /**
+   * Write a character to the output.
+   * 
+   * @param ch the character
+   */
+  private void append(final char ch)
+  {
+    if (error != null)
+    {
+      return;
+    }
+    
+    try
+    {
+      out.append(ch);
+      ++count;
+    }
+    catch (IOException e)
+    {
+      error = e;
+    }
+  }
+}
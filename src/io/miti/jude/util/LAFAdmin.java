@@ -6,13 +6,22 @@
 
 package io.miti.jude.util;
 
+import io.miti.jude.model.Snapshot;
+import io.miti.jude.model.SnapshotCache;
+
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
 
+import javax.swing.LookAndFeel;
 import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.UIManager.LookAndFeelInfo;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * Class to manage look and feels.
@@ -27,6 +36,11 @@ public final class LAFAdmin
    */
   private static List<LookAndFeelInfo> lafs = null;
   
+  /**
+   * The listeners told when look and feels are added.
+   */
+  private static List<ChangeListener> listeners = new ArrayList<ChangeListener>(5);
+  
   
   /**
    * Default constructor.
@@ -40,7 +54,7 @@ public final class LAFAdmin
   /**
    * Load the installed and referenced L&Fs.
    */
-  private static void loadData()
+  private static synchronized void loadData()
   {
     if (lafs != null)
     {
@@ -53,20 +67,75 @@ public final class LAFAdmin
       lafs.add(lafi);
     }
     
-    Set<Entry<String, String>> themes = ThemeLoader.getInstance().getThemes();
-    for (Entry<String, String> entry : themes)
+    // Add the themes, if they have been loaded; otherwise they
+    // are added by addThemes() when they are ready
+    Map<String, String> themes = ThemeLoader.getInstance().getLoadedThemes();
+    for (Entry<String, String> entry : themes.entrySet())
     {
       lafs.add(new LookAndFeelInfo(entry.getValue(), entry.getKey()));
     }
   }
   
   
+  /**
+   * Add the themes that have been loaded, and tell the listeners.
+   * Themes that are already in the list are skipped.  This is
+   * called on the event dispatch thread.
+   * 
+   * @param themes the map of class names to theme names
+   */
+  public static void addThemes(final Map<String, String> themes)
+  {
+    boolean added = false;
+    synchronized (LAFAdmin.class)
+    {
+      loadData();
+      Set<String> classes = new HashSet<String>(lafs.size() * 2);
+      for (LookAndFeelInfo lafi : lafs)
+      {
+        classes.add(lafi.getClassName());
+      }
+      
+      for (Entry<String, String> entry : themes.entrySet())
+      {
+        if (classes.add(entry.getKey()))
+        {
+          lafs.add(new LookAndFeelInfo(entry.getValue(), entry.getKey()));
+          added = true;
+        }
+      }
+    }
+    
+    // Tell the listeners, outside of the lock
+    if (added)
+    {
+      ChangeEvent evt = new ChangeEvent(LAFAdmin.class);
+      for (ChangeListener listener : listeners)
+      {
+        listener.stateChanged(evt);
+      }
+    }
+  }
+  
+  
+  /**
+   * Add a listener to be told, on the event dispatch thread, when
+   * look and feels are added to the end of the list.
+   * 
+   * @param listener the listener
+   */
+  public static void addChangeListener(final ChangeListener listener)
+  {
+    listeners.add(listener);
+  }
+  
+  
   /**
    * Return the number of look and feels.
    * 
    * @return the number of look and feels
    */
-  public static int getSize()
+  public static synchronized int getSize()
   {
     loadData();
     return lafs.size();
@@ -79,9 +148,111 @@ public final class LAFAdmin
    * @param index the index of the LAF to use
    */
   public static void setByIndex(final int index)
+  {
+    final String className = getClassName(index);
+    try
+    {
+      install(className);
+    }
+    catch (Exception e)
+    {
+      Logger.error("Exception: " + e.getMessage());
+    }
+  }
+  
+  
+  /**
+   * Install a look and feel.  A theme is created with its own class
+   * loader, which is also set in the UI defaults so the theme's UI
+   * classes can be found.  The class loader of the previous theme,
+   * if any, is then discarded.
+   * 
+   * @param className the L&F class name
+   * @throws ReflectiveOperationException if it can't be created
+   * @throws UnsupportedLookAndFeelException if it is not supported
+   */
+  public static void install(final String className)
+    throws ReflectiveOperationException, UnsupportedLookAndFeelException
+  {
+    final LookAndFeel previous = UIManager.getLookAndFeel();
+    final ThemeLoader loader = ThemeLoader.getInstance();
+    final ClassLoader cl = loader.getClassLoader(className);
+    if (cl == null)
+    {
+      UIManager.setLookAndFeel(className);
+    }
+    else
+    {
+      UIManager.setLookAndFeel(create(className));
+      UIManager.getLookAndFeelDefaults().put(Snapshot.CLASS_LOADER_KEY, cl);
+    }
+    
+    // Let the previous theme's classes be unloaded
+    if ((previous != null) && !previous.getClass().getName().equals(className))
+    {
+      loader.discard(previous.getClass().getName());
+    }
+  }
+  
+  
+  /**
+   * Capture the UI defaults of the look and feel at the array
+   * index, without installing it.  This must be called on the
+   * event dispatch thread, since the look and feel is created
+   * and its defaults built here.  The value of every row is
+   * computed before a theme that is not installed has its class
+   * loader discarded, so the snapshot doesn't need the theme's
+   * classes later.
+   * 
+   * @param index the index of the LAF to capture
+   * @return the snapshot of its UI defaults
+   * @throws ReflectiveOperationException if it can't be created
+   */
+  public static Snapshot captureByIndex(final int index)
+    throws ReflectiveOperationException
+  {
+    final String className = getClassName(index);
+    final Snapshot snapshot = SnapshotCache.getFor(create(className));
+    if (!className.equals(SnapshotCache.getCurrentName()))
+    {
+      final int size = snapshot.size();
+      for (int i = 0; i < size; ++i)
+      {
+        snapshot.getValue(i);
+      }
+      ThemeLoader.getInstance().discard(className);
+    }
+    
+    return snapshot;
+  }
+  
+  
+  /**
+   * Create an instance of a look and feel, from its theme's class
+   * loader if it is in a theme JAR.
+   * 
+   * @param className the L&F class name
+   * @return the new look and feel
+   * @throws ReflectiveOperationException if it can't be created
+   */
+  private static LookAndFeel create(final String className)
+    throws ReflectiveOperationException
+  {
+    return ThemeLoader.getInstance().getLAFClass(className)
+                      .getConstructor().newInstance();
+  }
+  
+  
+  /**
+   * Return the class name of the look and feel at the array index.
+   * 
+   * @param index the index of the LAF
+   * @return the class name
+   */
+  private static synchronized String getClassName(final int index)
   {
     loadData();
-    Utility.initLookAndFeel(lafs.get(index).getClassName());
+    return lafs.get(index).getClassName();
   }
   
   
@@ -90,7 +261,7 @@ public final class LAFAdmin
    * 
    * @return an array of the names of the LAFs
    */
-  public static String[] getNames()
+  public static synchronized String[] getNames()
   {
     loadData();
     
@@ -108,7 +279,7 @@ public final class LAFAdmin
    * 
    * @return the index in lafs of the default (current) LAF
    */
-  public static int getDefaultIndex()
+  public static synchronized int getDefaultIndex()
   {
     loadData();
     
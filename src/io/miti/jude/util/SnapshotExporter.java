@@ -0,0 +1,244 @@
+/**
+ * @(#)SnapshotExporter.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import io.miti.jude.model.Defaults;
+import io.miti.jude.model.Snapshot;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Export every row of a snapshot to a single JSON document.
+ * 
+ * The rows are split into runs of consecutive keys, and each run
+ * is serialized to a fragment on a fork-join pool.  The fragments
+ * are written out in key order as soon as they and the ones before
+ * them finish, and only a few runs are in progress at a time, so
+ * the memory used does not grow with the size of the snapshot.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class SnapshotExporter
+{
+  /**
+   * The number of rows serialized by each task.
+   */
+  private static final int ROWS_PER_TASK = 32;
+  
+  /**
+   * The number of tasks in progress per thread.
+   */
+  private static final int TASKS_PER_THREAD = 4;
+  
+  /**
+   * The depth of the rows in the document.
+   */
+  private static final int ROW_DEPTH = 2;
+  
+  
+  /**
+   * Default constructor.
+   */
+  private SnapshotExporter()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Export the snapshot to a file.  Errors are logged.
+   * 
+   * @param snapshot the snapshot to export
+   * @param fileName the name of the file to write
+   * @return whether the file was written
+   */
+  public static boolean export(final Snapshot snapshot, final String fileName)
+  {
+    BufferedWriter out = null;
+    try
+    {
+      out = new BufferedWriter(new FileWriter(fileName));
+      JSONWriter writer = new JSONWriter(out);
+      write(snapshot, writer);
+      if (writer.checkError())
+      {
+        throw writer.getError();
+      }
+      
+      out.write(Utility.getLineSeparator());
+      out.close();
+      out = null;
+      return true;
+    }
+    catch (IOException e)
+    {
+      Logger.error("Exception writing " + fileName + ": " + e.getMessage());
+    }
+    catch (InterruptedException e)
+    {
+      Logger.error("Interrupted writing " + fileName);
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e)
+    {
+      // Rows that fail are written as null, so this is unexpected
+      Logger.error("Exception exporting the snapshot to " + fileName +
+                   ": " + e.getCause());
+    }
+    finally
+    {
+      if (out != null)
+      {
+        try
+        {
+          out.close();
+        }
+        catch (IOException e)
+        {
+          Logger.error(e);
+        }
+      }
+    }
+    
+    return false;
+  }
+  
+  
+  /**
+   * Write the snapshot as the next value of the JSON writer.  The
+   * value is an object holding the name of the look and feel, the
+   * number of rows, and an object with the value for each key.
+   * 
+   * @param snapshot the snapshot to export
+   * @param writer the JSON writer
+   * @throws InterruptedException if the thread is interrupted
+   * @throws ExecutionException if a run of rows can't be written;
+   *         the document is left incomplete
+   */
+  public static void write(final Snapshot snapshot, final JSONWriter writer)
+    throws InterruptedException, ExecutionException
+  {
+    writer.beginObject()
+          .name("lookAndFeel").value(snapshot.getName())
+          .name("count").value(snapshot.size())
+          .name("defaults").beginObject();
+    
+    // Start the first tasks, and each time the oldest finishes,
+    // write its fragment and start the next
+    final int size = snapshot.size();
+    final ForkJoinPool pool = new ForkJoinPool();
+    final int maxPending = pool.getParallelism() * TASKS_PER_THREAD;
+    Deque<Future<String>> pending = new ArrayDeque<Future<String>>(maxPending);
+    try
+    {
+      int start = 0;
+      while ((start < size) || !pending.isEmpty())
+      {
+        while ((start < size) && (pending.size() < maxPending))
+        {
+          final int end = Math.min(size, start + ROWS_PER_TASK);
+          pending.add(pool.submit(new RowTask(snapshot, start, end)));
+          start = end;
+        }
+        
+        writer.fragment(pending.remove().get());
+        if (writer.checkError())
+        {
+          break;
+        }
+      }
+    }
+    finally
+    {
+      pool.shutdownNow();
+    }
+    
+    writer.endObject().endObject();
+    writer.flush();
+  }
+  
+  
+  /**
+   * Serialize a run of rows to a JSON fragment.
+   */
+  private static final class RowTask implements Callable<String>
+  {
+    /**
+     * The snapshot.
+     */
+    private final Snapshot snapshot;
+    
+    /**
+     * The index of the first row.
+     */
+    private final int start;
+    
+    /**
+     * The index after the last row.
+     */
+    private final int end;
+    
+    
+    /**
+     * Create the task.
+     * 
+     * @param pSnapshot the snapshot
+     * @param nStart the index of the first row
+     * @param nEnd the index after the last row
+     */
+    public RowTask(final Snapshot pSnapshot, final int nStart, final int nEnd)
+    {
+      snapshot = pSnapshot;
+      start = nStart;
+      end = nEnd;
+    }
+    
+    
+    /**
+     * Write each row as a member of the defaults object.
+     * 
+     * @return the fragment
+     */
+    @Override
+    public String call()
+    {
+      StringBuilder sb = new StringBuilder(100 * (end - start));
+      JSONWriter writer = new JSONWriter(sb, true, ROW_DEPTH);
+      for (int i = start; i < end; ++i)
+      {
+        // Write each row to its own buffer first, so a value that
+        // can't be exported doesn't leave a partial value behind
+        final Defaults def = snapshot.get(i);
+        StringBuilder row = new StringBuilder(100);
+        try
+        {
+          JSONWriter rowWriter = new JSONWriter(row, true, ROW_DEPTH);
+          rowWriter.name(def.getKeyPrefix(), def.getKeySuffix());
+          Exporter.writeValue(def.getExportValue(), rowWriter);
+          writer.fragment(row);
+        }
+        catch (RuntimeException e)
+        {
+          Logger.debug("Skipping the value of " + def.getKey() + ": " +
+                       e.getMessage());
+          writer.name(def.getKey()).nullValue();
+        }
+      }
+      
+      return sb.toString();
+    }
+  }
+}
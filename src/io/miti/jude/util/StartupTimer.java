@@ -0,0 +1,93 @@
+/**
+ * @(#)StartupTimer.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Report how long each phase of starting the application takes.
+ * Each phase is logged at the info level, with the time since the
+ * previous phase and since startup began, so the log shows where
+ * the time goes before the first table is filled.  Set log.level
+ * to 1 in the properties file to see it.
+ * 
+ * Phases may finish on any thread.  Each phase is only reported
+ * the first time it finishes.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+public final class StartupTimer
+{
+  /**
+   * When startup began, from System.nanoTime().
+   */
+  private static long start = System.nanoTime();
+  
+  /**
+   * When the last phase finished, from System.nanoTime().
+   */
+  private static long last = start;
+  
+  /**
+   * The phases that have been reported.
+   */
+  private static Set<String> reported = new HashSet<String>(10);
+  
+  
+  /**
+   * Default constructor.
+   */
+  private StartupTimer()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Mark the start of startup.
+   */
+  public static synchronized void start()
+  {
+    start = System.nanoTime();
+    last = start;
+    reported.clear();
+  }
+  
+  
+  /**
+   * Report that a phase has finished, if it has not been reported
+   * before.
+   * 
+   * @param phase the name of the phase
+   */
+  public static synchronized void phase(final String phase)
+  {
+    if (!reported.add(phase))
+    {
+      return;
+    }
+    
+    final long now = System.nanoTime();
+    Logger.info("Startup: " + phase + " in " + toMillis(now - last) +
+                " ms (" + toMillis(now - start) + " ms total)");
+    last = now;
+  }
+  
+  
+  /**
+   * Convert nanoseconds to milliseconds.
+   * 
+   * @param nanos the time in nanoseconds
+   * @return the time in milliseconds
+   */
+  private static long toMillis(final long nanos)
+  {
+    return (nanos / 1000000L);
+  }
+}
@@ -0,0 +1,370 @@
+/**
+ * @(#)ThemeCache.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * The names of the theme look and feels, and whether each is
+ * supported on this platform, saved between runs so themes whose
+ * JAR has not changed can be listed (or left out) without loading
+ * or initializing any of their classes.
+ * 
+ * Each entry is keyed on the L&F class name, and records the JAR
+ * holding the class, with its size, modification time and CRC-32.
+ * An entry is used if the JAR has the same size and modification
+ * time, or the same size and checksum (such as after a copy that
+ * does not keep the time).
+ * 
+ * The index from scanning each JAR (its look and feel classes,
+ * and the chains of superclasses that leave it) is kept the same
+ * way, keyed on "jar:" and the JAR name.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class ThemeCache
+{
+  /**
+   * The start of the keys of the JAR index entries.
+   */
+  private static final String JAR_PREFIX = "jar:";
+  
+  /**
+   * The directory holding the theme JARs.
+   */
+  private final File dir;
+  
+  /**
+   * The cache file.
+   */
+  private final File file;
+  
+  /**
+   * The cached entries.
+   */
+  private final Properties props;
+  
+  /**
+   * The checksums computed so far, by JAR.
+   */
+  private final Map<File, String> hashes = new HashMap<File, String>(10);
+  
+  /**
+   * Whether the entries have changed since they were read.
+   */
+  private boolean changed = false;
+  
+  
+  /**
+   * Read the cache file.  A missing or unreadable file gives
+   * an empty cache.
+   * 
+   * @param pDir the directory holding the theme JARs
+   * @param pFile the cache file
+   */
+  public ThemeCache(final File pDir, final File pFile)
+  {
+    dir = pDir;
+    file = pFile;
+    Properties cached = file.isFile() ? Utility.getProperties(file.getPath()) : null;
+    props = (cached == null) ? new Properties() : cached;
+  }
+  
+  
+  /**
+   * Return the cached name of a look and feel, if its JAR has not
+   * changed.
+   * 
+   * @param className the L&F class name
+   * @return the name, or null if it is not cached or is out of date
+   */
+  public String getName(final String className)
+  {
+    final File jar = getJar(className);
+    if ((jar == null) || !isCurrent(className, jar))
+    {
+      return null;
+    }
+    
+    return props.getProperty(className + ".name");
+  }
+  
+  
+  /**
+   * Return whether a cached look and feel is supported on this
+   * platform.  Call getName() first, to check that the entry is
+   * current.  An entry without the flag counts as supported.
+   * 
+   * @param className the L&F class name
+   * @return whether the L&F is supported
+   */
+  public boolean isSupported(final String className)
+  {
+    return !"0".equals(props.getProperty(className + ".supported"));
+  }
+  
+  
+  /**
+   * Return the index of a JAR, if the JAR has not changed since
+   * it was scanned.
+   * 
+   * @param jar the JAR
+   * @return the index, or null if the JAR has not been scanned
+   *         or is out of date
+   */
+  public ThemeScanner.Index getIndex(final File jar)
+  {
+    final String key = JAR_PREFIX + jar.getName();
+    final String classes = props.getProperty(key + ".classes");
+    final String bases = props.getProperty(key + ".bases");
+    if ((classes == null) || (bases == null) || !isCurrent(key, jar))
+    {
+      return null;
+    }
+    
+    // Each link is saved as the class and its superclass, with
+    // a '>' between them
+    Map<String, String> links = new HashMap<String, String>(20);
+    for (String link : split(props.getProperty(key + ".links", "")))
+    {
+      final int sep = link.indexOf('>');
+      if (sep > 0)
+      {
+        links.put(link.substring(0, sep), link.substring(sep + 1));
+      }
+    }
+    
+    return new ThemeScanner.Index(split(classes),
+                                  new HashSet<String>(split(bases)), links,
+                                  new LinkedHashSet<String>(split(props.getProperty(key + ".open", ""))));
+  }
+  
+  
+  /**
+   * Save the index of a JAR.
+   * 
+   * @param jar the JAR
+   * @param index the index
+   */
+  public void putIndex(final File jar, final ThemeScanner.Index index)
+  {
+    final String key = JAR_PREFIX + jar.getName();
+    List<String> links = new ArrayList<String>(index.getLinks().size());
+    for (Entry<String, String> link : index.getLinks().entrySet())
+    {
+      links.add(link.getKey() + ">" + link.getValue());
+    }
+    
+    putFile(key, jar);
+    props.setProperty(key + ".classes", join(index.getClasses()));
+    props.setProperty(key + ".bases", join(index.getBases()));
+    props.setProperty(key + ".links", join(links));
+    props.setProperty(key + ".open", join(index.getOpen()));
+    changed = true;
+  }
+  
+  
+  /**
+   * Split a comma-separated list of names.
+   * 
+   * @param str the list
+   * @return the names
+   */
+  private static List<String> split(final String str)
+  {
+    List<String> list = new ArrayList<String>(5);
+    for (String name : str.split(","))
+    {
+      if (name.length() > 0)
+      {
+        list.add(name);
+      }
+    }
+    
+    return list;
+  }
+  
+  
+  /**
+   * Join names into a comma-separated list.
+   * 
+   * @param names the names
+   * @return the list
+   */
+  private static String join(final Collection<String> names)
+  {
+    StringBuilder sb = new StringBuilder(100);
+    for (String name : names)
+    {
+      if (sb.length() > 0)
+      {
+        sb.append(',');
+      }
+      sb.append(name);
+    }
+    
+    return sb.toString();
+  }
+  
+  
+  /**
+   * Return whether a JAR is the same as when it was saved under
+   * a key: it has the same size, and the same time or checksum.
+   * 
+   * @param key the key the JAR was saved under
+   * @param jar the JAR
+   * @return whether the JAR is unchanged
+   */
+  private boolean isCurrent(final String key, final File jar)
+  {
+    // Check the size, and then the time or the checksum
+    final String size = props.getProperty(key + ".size");
+    final String modified = props.getProperty(key + ".modified");
+    if (!Long.toString(jar.length()).equals(size))
+    {
+      return false;
+    }
+    else if (!Long.toString(jar.lastModified()).equals(modified))
+    {
+      if (!getHash(jar).equals(props.getProperty(key + ".hash")))
+      {
+        return false;
+      }
+      
+      // Same contents; save the new time
+      props.setProperty(key + ".modified", Long.toString(jar.lastModified()));
+      changed = true;
+    }
+    
+    return true;
+  }
+  
+  
+  /**
+   * Save the size, time and checksum of a JAR under a key.
+   * 
+   * @param key the key
+   * @param jar the JAR
+   */
+  private void putFile(final String key, final File jar)
+  {
+    props.setProperty(key + ".size", Long.toString(jar.length()));
+    props.setProperty(key + ".modified", Long.toString(jar.lastModified()));
+    props.setProperty(key + ".hash", getHash(jar));
+  }
+  
+  
+  /**
+   * Return the JAR that held a look and feel when it was cached.
+   * 
+   * @param className the L&F class name
+   * @return the JAR, or null if it is not cached or no longer exists
+   */
+  public File getJar(final String className)
+  {
+    final String jarName = props.getProperty(className + ".jar");
+    if (jarName == null)
+    {
+      return null;
+    }
+    
+    final File jar = new File(dir, jarName);
+    return jar.isFile() ? jar : null;
+  }
+  
+  
+  /**
+   * Save the name of a look and feel, and whether it is supported
+   * on this platform.
+   * 
+   * @param className the L&F class name
+   * @param jar the JAR holding the class
+   * @param name the name of the L&F
+   * @param supported whether the L&F is supported on this platform
+   */
+  public void put(final String className, final File jar, final String name,
+                  final boolean supported)
+  {
+    props.setProperty(className + ".jar", jar.getName());
+    putFile(className, jar);
+    props.setProperty(className + ".name", name);
+    props.setProperty(className + ".supported", supported ? "1" : "0");
+    props.remove(className + ".native");
+    changed = true;
+  }
+  
+  
+  /**
+   * Write the cache file, if any entries have changed.
+   */
+  public void save()
+  {
+    if (changed)
+    {
+      Utility.storeProperties(file.getPath(), props);
+      changed = false;
+    }
+  }
+  
+  
+  /**
+   * Return the CRC-32 of a JAR, as a hex string.  Each JAR is
+   * only read once.
+   * 
+   * @param jar the JAR
+   * @return the checksum, or an empty string if the JAR can't be read
+   */
+  private String getHash(final File jar)
+  {
+    String hash = hashes.get(jar);
+    if (hash == null)
+    {
+      hash = "";
+      CRC32 crc = new CRC32();
+      byte[] buf = new byte[8192];
+      try
+      {
+        InputStream in = new FileInputStream(jar);
+        try
+        {
+          int len;
+          while ((len = in.read(buf)) > 0)
+          {
+            crc.update(buf, 0, len);
+          }
+          hash = Long.toHexString(crc.getValue());
+        }
+        finally
+        {
+          in.close();
+        }
+      }
+      catch (IOException e)
+      {
+        Logger.error("IOException reading " + jar.getName() + ": " + e.getMessage());
+      }
+      
+      hashes.put(jar, hash);
+    }
+    
+    return hash;
+  }
+}
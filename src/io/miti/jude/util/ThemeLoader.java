@@ -6,21 +6,42 @@
 
 package io.miti.jude.util;
 
+import io.miti.jude.model.SnapshotCache;
+
 import java.io.BufferedReader;
 import java.io.FilenameFilter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipFile;
 
 import javax.swing.LookAndFeel;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UIManager.LookAndFeelInfo;
 
@@ -35,6 +56,8 @@ themes.txt
 a.b.c.d
 e.f.g.h
 i.j.k.l
+# Add the look and feels found in the jars
+* 
 
 
 Steps
@@ -42,13 +65,33 @@ Steps
 1. At startup, if .themes and themes.txt exist,
 read the class names in the file. If a line in
 themes.txt starts with a #, skip it.
-3. If the list is not empty, get the list of
-jars in .themes and add each one to the 
-classpath via ResourceLoader.
+2. If themes.txt does not exist, or has a line
+with just a *, also scan the jars for public,
+concrete subclasses of LookAndFeel and classes
+listed in META-INF/services, via ThemeScanner.
+The classes found in each jar are kept in
+themes.cache, and a jar is only scanned again
+when it changes.  A class whose superclass is
+in another jar is followed through the jars that
+hold no themes (the libraries).
+3. If the list is not empty, look up each class
+in themes.cache.  A class whose jar has the same
+size and time (or checksum) as when it was cached
+uses the cached name, and its classes are only
+loaded when the theme is selected.  The other
+classes are found in the jars, and each is loaded
+with its own class loader.  Jars that hold none of
+the themes are libraries, on every theme's path.
 4. Instantiate each L&F class and add the
 class name and L&F name to the list in LAFAdmin.
 The L&F name comes from getName().  Skip an entry
-if it's already in the list (match on class name).
+if it's already in the list (match on class name),
+or if isSupportedLookAndFeel() is false; a theme
+that is not supported is kept in themes.cache, so
+it is left out without being loaded again.
+The classes are instantiated in parallel, on a
+background thread, so they don't hold up startup,
+and the new names are saved in themes.cache.
 
 Create via: LookAndFeelInfo x = new LookAndFeelInfo("name", "class");
  */
@@ -67,16 +110,55 @@ public final class ThemeLoader
    */
   private static final ThemeLoader loader = new ThemeLoader();
   
+  /**
+   * How long to wait for each theme class to load and return its
+   * name, in milliseconds.
+   */
+  private static final long PROBE_TIMEOUT = 10000L;
+  
+  /**
+   * The name of the theme cache file, in the themes directory.
+   */
+  private static final String CACHE_FILE = "themes.cache";
+  
+  /**
+   * The line in themes.txt that asks for the JARs to be scanned
+   * for L&F classes.
+   */
+  private static final String DISCOVER = "*";
+  
   /**
    * The list of class names and theme names.
    */
   private HashMap<String, String> themes = new LinkedHashMap<String, String>(20);
   
   /**
-   * Whether the themes have been loaded.
+   * The JAR holding each theme class, if it is in a theme JAR.
+   */
+  private Map<String, File> themeJars = new ConcurrentHashMap<String, File>(20);
+  
+  /**
+   * The class loader of each theme in use, by class name.
+   */
+  private Map<String, URLClassLoader> loaders = new HashMap<String, URLClassLoader>(10);
+  
+  /**
+   * The JARs in the themes directory that hold no theme, such as
+   * libraries used by the themes.  They are on the class path of
+   * every theme.
+   */
+  private volatile List<File> libraryJars = Collections.emptyList();
+  
+  /**
+   * Whether loading the themes has been started.
    */
   private boolean themesLoaded = false;
   
+  /**
+   * Released when the themes have been loaded.
+   */
+  private final CountDownLatch loaded = new CountDownLatch(1);
+  
   
   /**
    * Default constructor.
@@ -99,7 +181,7 @@ public final class ThemeLoader
   
   
   /**
-   * Return the set of themes.
+   * Return the set of themes, waiting for them to be loaded.
    * 
    * @return the set of themes
    */
@@ -111,9 +193,46 @@ public final class ThemeLoader
   
   
   /**
-   * Load the themes in the subdirectory.
+   * Return the themes if they have been loaded, without waiting.
+   * 
+   * @return the map of class names to theme names; empty if the
+   *         themes are still loading
+   */
+  public Map<String, String> getLoadedThemes()
+  {
+    if (loaded.getCount() > 0)
+    {
+      return Collections.emptyMap();
+    }
+    
+    return Collections.unmodifiableMap(themes);
+  }
+  
+  
+  /**
+   * Load the themes in the subdirectory, and wait for them to
+   * be loaded.
    */
   public void loadThemes()
+  {
+    loadThemesInBackground();
+    try
+    {
+      loaded.await();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  
+  /**
+   * Start loading the themes in the subdirectory on a background
+   * thread, and return at once.  When the themes are loaded, they
+   * are added to LAFAdmin on the event dispatch thread.
+   */
+  public synchronized void loadThemesInBackground()
   {
     // Check if the themes have already been loaded
     if (themesLoaded)
@@ -123,58 +242,468 @@ public final class ThemeLoader
     
     // Load the themes now
     themesLoaded = true;
-    final File dir = new File(".", ".themes");
-    if ((dir.exists()) && (dir.isDirectory()))
+    Thread thread = new Thread(new Runnable()
     {
-      // Look for the .ini file
-      File file = new File(dir, "themes.txt");
-      if ((file.exists()) && (file.isFile()))
+      public void run()
       {
-        // Get the contents (class names) of the file
-        Iterator<String> lines = getFileContents(file);
+        try
+        {
+          load();
+        }
+        finally
+        {
+          loaded.countDown();
+        }
+        StartupTimer.phase("Loaded the themes");
         
-        // If there are class names to load, load any jars
-        if (lines.hasNext())
+        // Add the themes to the list of look and feels
+        final Map<String, String> map = getLoadedThemes();
+        if (!map.isEmpty())
         {
-          // Get all the jar files in the directory
-          String[] list = dir.list(new JarFilter());
-          if ((list != null) && (list.length > 0))
+          SwingUtilities.invokeLater(new Runnable()
           {
-            for (String jar : list)
+            public void run()
             {
-              // Add this file to the class path
-              ResourceLoader.addFile(new File(dir, jar));
+              LAFAdmin.addThemes(map);
             }
-          }
-          
-          // Get a set of the installed class names
-          Set<String> installedLAFs = getInstalledLAFClasses();
-          
-          // Now instantiate each L&F class and save it
-          while (lines.hasNext())
+          });
+        }
+      }
+    }, "ThemeLoader");
+    thread.setDaemon(true);
+    thread.start();
+  }
+  
+  
+  /**
+   * Load the themes in the subdirectory.  Themes whose JAR is
+   * unchanged since the last run are taken from the cache, without
+   * loading any classes; the rest are loaded and instantiated, and
+   * added to the cache.
+   */
+  private void load()
+  {
+    final File dir = new File(".", ".themes");
+    if (!dir.isDirectory())
+    {
+      return;
+    }
+    
+    // Get the class names in the .ini file.  Scan the JARs if
+    // there is no file, or it has a line with just a *.
+    File file = new File(dir, "themes.txt");
+    boolean discover = !file.isFile();
+    List<String> listed = new ArrayList<String>(20);
+    if (!discover)
+    {
+      Iterator<String> lines = getFileContents(file);
+      while (lines.hasNext())
+      {
+        String clazz = lines.next();
+        if (clazz.equals(DISCOVER))
+        {
+          discover = true;
+        }
+        else
+        {
+          listed.add(clazz);
+        }
+      }
+    }
+    
+    // Add the classes found in the JARs
+    ThemeCache cache = new ThemeCache(dir, new File(dir, CACHE_FILE));
+    if (discover)
+    {
+      listed.addAll(discoverClasses(dir, cache));
+    }
+    
+    // If there are class names to load, check the cache
+    if (listed.isEmpty())
+    {
+      cache.save();
+      return;
+    }
+    
+    // Get a set of the installed class names
+    Set<String> installedLAFs = getInstalledLAFClasses();
+    
+    // Get the classes that we haven't already added, and that
+    // are not in the list of installed class names
+    Set<String> classes = new LinkedHashSet<String>(20);
+    for (String clazz : listed)
+    {
+      if (!installedLAFs.contains(clazz))
+      {
+        classes.add(clazz);
+      }
+    }
+    
+    // Use the cached names of themes with unchanged JARs
+    Map<String, String> cached = new HashMap<String, String>(classes.size() * 2);
+    Set<String> unknown = new LinkedHashSet<String>(classes.size() * 2);
+    for (String clazz : classes)
+    {
+      final String name = cache.getName(clazz);
+      if (name != null)
+      {
+        if (!cache.isSupported(clazz))
+        {
+          continue;
+        }
+        cached.put(clazz, name);
+        themeJars.put(clazz, cache.getJar(clazz));
+      }
+      else
+      {
+        unknown.add(clazz);
+      }
+    }
+    
+    // Find the JARs of the other classes, and the library JARs
+    findJars(dir, unknown);
+    libraryJars = findLibraryJars(dir);
+    
+    // Now instantiate each new L&F class and read its name, and
+    // save the themes in the order of the file.  The class loaders
+    // used to get the names are discarded by probe(); a theme gets
+    // a new one when it is selected.
+    Map<String, ThemeInfo> probed = probe(unknown);
+    for (String clazz : classes)
+    {
+      final ThemeInfo info = probed.get(clazz);
+      if (info != null)
+      {
+        final File jar = themeJars.get(clazz);
+        if (jar != null)
+        {
+          cache.put(clazz, jar, info.name, info.supported);
+        }
+        
+        // Leave out a theme that can't be used on this platform
+        if (info.supported)
+        {
+          themes.put(clazz, info.name);
+        }
+        else
+        {
+          Logger.info("Skipping " + clazz + ": not supported on this platform");
+        }
+      }
+      else if (cached.containsKey(clazz))
+      {
+        themes.put(clazz, cached.get(clazz));
+      }
+    }
+    
+    cache.save();
+  }
+  
+  
+  /**
+   * Return the L&F classes in the JARs of the themes directory,
+   * in order of JAR name.  A JAR is only scanned if it has changed
+   * since it was last scanned; otherwise its index is taken from
+   * the cache.  A class whose superclasses continue in the library
+   * JARs is followed through their indexes, since they are on the
+   * theme's class path.
+   * 
+   * @param dir the themes directory
+   * @param cache the theme cache
+   * @return the L&F class names
+   */
+  private List<String> discoverClasses(final File dir, final ThemeCache cache)
+  {
+    List<String> classes = new ArrayList<String>(20);
+    String[] list = dir.list(new JarFilter());
+    if (list == null)
+    {
+      return classes;
+    }
+    
+    // Scan the JARs that have changed
+    Arrays.sort(list);
+    Map<File, ThemeScanner.Index> indexes =
+      new LinkedHashMap<File, ThemeScanner.Index>(list.length * 2);
+    for (String jarName : list)
+    {
+      final File jar = new File(dir, jarName);
+      ThemeScanner.Index index = cache.getIndex(jar);
+      if (index == null)
+      {
+        try
+        {
+          index = ThemeScanner.scan(jar);
+          cache.putIndex(jar, index);
+        }
+        catch (IOException e)
+        {
+          Logger.error("IOException scanning " + jarName + ": " + e.getMessage());
+          continue;
+        }
+      }
+      indexes.put(jar, index);
+    }
+    
+    // Follow the superclasses through the library JARs
+    for (Entry<File, List<String>> found : ThemeScanner.resolve(indexes).entrySet())
+    {
+      for (String clazz : found.getValue())
+      {
+        if (!themeJars.containsKey(clazz))
+        {
+          themeJars.put(clazz, found.getKey());
+          classes.add(clazz);
+        }
+      }
+    }
+    
+    return classes;
+  }
+  
+  
+  /**
+   * Find the JAR in the themes directory that holds each class,
+   * by looking up the class file in each JAR's directory.
+   * 
+   * @param dir the themes directory
+   * @param classes the L&F class names
+   */
+  private void findJars(final File dir, final Set<String> classes)
+  {
+    String[] list = dir.list(new JarFilter());
+    if ((list == null) || classes.isEmpty())
+    {
+      return;
+    }
+    
+    for (String jarName : list)
+    {
+      final File jar = new File(dir, jarName);
+      try
+      {
+        ZipFile zip = new ZipFile(jar);
+        try
+        {
+          for (String clazz : classes)
           {
-            String clazz = lines.next();
-            
-            // Check that we haven't already added this class name
-            // and it's not in the list of installed class names
-            if ((!themes.containsKey(clazz)) && (!installedLAFs.contains(clazz)))
+            if (!themeJars.containsKey(clazz) &&
+                (zip.getEntry(clazz.replace('.', '/') + ".class") != null))
             {
-              // Get the name of the L&F, by instantiating the class
-              String name = getLAFName(clazz);
-              if (name != null)
-              {
-                // The name isn't null, so add the class and name
-                // Logger.info("Adding class " + clazz + ", named " + name);
-                themes.put(clazz, name);
-              }
+              themeJars.put(clazz, jar);
             }
           }
         }
+        finally
+        {
+          zip.close();
+        }
+      }
+      catch (IOException e)
+      {
+        Logger.error("IOException reading " + jarName + ": " + e.getMessage());
+      }
+    }
+  }
+  
+  
+  /**
+   * Return the JARs in the themes directory that hold none of the
+   * themes, in order of name.
+   * 
+   * @param dir the themes directory
+   * @return the library JARs
+   */
+  private List<File> findLibraryJars(final File dir)
+  {
+    List<File> jars = new ArrayList<File>(5);
+    String[] list = dir.list(new JarFilter());
+    if (list == null)
+    {
+      return jars;
+    }
+    
+    Arrays.sort(list);
+    Set<File> used = new HashSet<File>(themeJars.values());
+    for (String jarName : list)
+    {
+      final File jar = new File(dir, jarName);
+      if (!used.contains(jar))
+      {
+        jars.add(jar);
+      }
+    }
+    
+    return jars;
+  }
+  
+  
+  /**
+   * Return the class loader for a theme, creating it the first time
+   * the theme is used.  Each theme has its own class loader, a child
+   * of the application's, that loads from the theme's JAR and then
+   * the library JARs, so themes can't clash, and a theme's classes
+   * can be unloaded once its class loader is discarded.  Themes from
+   * the cache don't get a class loader until they are selected.
+   * 
+   * @param className the L&F class name
+   * @return the class loader, or null if the class is not in a
+   *         theme JAR
+   */
+  public synchronized ClassLoader getClassLoader(final String className)
+  {
+    final File jar = themeJars.get(className);
+    if (jar == null)
+    {
+      return null;
+    }
+    
+    URLClassLoader cl = loaders.get(className);
+    if (cl == null)
+    {
+      final List<File> libraries = libraryJars;
+      URL[] urls = new URL[libraries.size() + 1];
+      try
+      {
+        urls[0] = jar.toURI().toURL();
+        for (int i = 0; i < libraries.size(); ++i)
+        {
+          urls[i + 1] = libraries.get(i).toURI().toURL();
+        }
+      }
+      catch (MalformedURLException e)
+      {
+        Logger.error(jar.getName() + " has malformed URL/URI: " + e.getMessage());
+        return null;
+      }
+      
+      cl = new URLClassLoader(urls, ThemeLoader.class.getClassLoader());
+      loaders.put(className, cl);
+    }
+    
+    return cl;
+  }
+  
+  
+  /**
+   * Discard the class loader of a theme that is no longer in use,
+   * and close its JAR.  The cached snapshot of the theme is dropped
+   * too, since its values would keep the theme's classes loaded.
+   * The theme gets a new class loader if it is used again.  Classes
+   * that are not in a theme JAR are ignored.
+   * 
+   * @param className the L&F class name
+   */
+  public synchronized void discard(final String className)
+  {
+    URLClassLoader cl = loaders.remove(className);
+    if (cl != null)
+    {
+      SnapshotCache.remove(className);
+      try
+      {
+        cl.close();
+      }
+      catch (IOException e)
+      {
+        Logger.error("IOException closing the class loader for " + className +
+                     ": " + e.getMessage());
       }
     }
   }
   
   
+  /**
+   * Return the class of a look and feel, from its theme's class
+   * loader if it is in a theme JAR.
+   * 
+   * @param className the L&F class name
+   * @return the class
+   * @throws ClassNotFoundException if the class can't be found
+   */
+  public Class<? extends LookAndFeel> getLAFClass(final String className)
+    throws ClassNotFoundException
+  {
+    ClassLoader cl = getClassLoader(className);
+    if (cl == null)
+    {
+      cl = ThemeLoader.class.getClassLoader();
+    }
+    
+    return Class.forName(className, true, cl).asSubclass(LookAndFeel.class);
+  }
+  
+  
+  /**
+   * Instantiate each L&F class on its own thread, and return the
+   * name and support of the classes that load.  Each class has
+   * PROBE_TIMEOUT milliseconds from when its probe starts; a class
+   * that fails or takes longer is logged and skipped, without
+   * holding up the others.  The class loader of each finished probe
+   * is discarded.  A probe that times out can't be stopped (it may
+   * be running a static initializer), so it is abandoned, and its
+   * class loader is discarded when it does finish.
+   * 
+   * @param classes the L&F class names
+   * @return the theme details, by class name
+   */
+  private Map<String, ThemeInfo> probe(final Set<String> classes)
+  {
+    // Start all of the classes loading at once
+    ExecutorService pool = Executors.newCachedThreadPool(new ThreadFactory()
+    {
+      public Thread newThread(final Runnable r)
+      {
+        Thread thread = new Thread(r, "ThemeProbe");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    Map<Probe, Future<ThemeInfo>> probes =
+      new LinkedHashMap<Probe, Future<ThemeInfo>>(classes.size() * 2);
+    for (String clazz : classes)
+    {
+      Probe probe = new Probe(clazz);
+      probes.put(probe, pool.submit(probe));
+    }
+    pool.shutdown();
+    
+    // Collect the details
+    Map<String, ThemeInfo> infos = new HashMap<String, ThemeInfo>(classes.size() * 2);
+    for (Entry<Probe, Future<ThemeInfo>> entry : probes.entrySet())
+    {
+      final Probe probe = entry.getKey();
+      try
+      {
+        ThemeInfo info = probe.get(entry.getValue());
+        if (info != null)
+        {
+          infos.put(probe.className, info);
+        }
+        discard(probe.className);
+      }
+      catch (TimeoutException e)
+      {
+        probe.abandon();
+        Logger.error("Timed out instantiating " + probe.className);
+      }
+      catch (ExecutionException e)
+      {
+        discard(probe.className);
+        Logger.error("Exception instantiating " + probe.className +
+                     ": " + e.getCause());
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    
+    return infos;
+  }
+  
+  
   /**
    * Return a set of the installed L&F classes.
    * 
@@ -197,33 +726,34 @@ public final class ThemeLoader
   
   
   /**
-   * Return the name of the L&F referenced by this class.
+   * Create an instance of the L&F referenced by this class, and
+   * read its name and whether it is supported, while its class
+   * loader is open.
+   * Any exception or linkage error (such as a class missing from
+   * the theme's JAR) is logged, and only skips this theme.
    * 
    * @param className the L&F class name
-   * @return the name of the L&F
+   * @return the theme details, or null if the L&F can't be created
    */
-  private static String getLAFName(final String className)
+  private ThemeInfo probeTheme(final String className)
   {
-    String lafName = null;
+    ThemeInfo info = null;
     try
     {
-      Class<?> cl = Class.forName(className);
-      if (cl != null)
-      {
-        LookAndFeel laf = (LookAndFeel) cl.newInstance();
-        if (laf != null)
-        {
-          lafName = laf.getName();
-        }
-      }
+      LookAndFeel laf = getLAFClass(className).getConstructor().newInstance();
+      info = new ThemeInfo(laf.getName(), laf.isSupportedLookAndFeel());
     }
     catch (Exception e)
     {
       Logger.error("Exception instantiating " + className +
                    ": " + e.getMessage());
     }
+    catch (LinkageError e)
+    {
+      Logger.error("Error loading " + className + ": " + e);
+    }
     
-    return lafName;
+    return info;
   }
   
   
@@ -279,6 +809,153 @@ public final class ThemeLoader
     
     return lines.iterator();
   }
+  
+  
+  /**
+   * The task that probes one theme class.  It notes when it starts,
+   * so each theme is timed from then rather than from when all of
+   * the probes were submitted.
+   */
+  private final class Probe implements Callable<ThemeInfo>
+  {
+    /**
+     * The L&F class name.
+     */
+    private final String className;
+    
+    /**
+     * When the probe started, from System.currentTimeMillis(),
+     * or 0 if it has not started.
+     */
+    private volatile long started = 0L;
+    
+    /**
+     * Whether the probe has finished.
+     */
+    private boolean finished = false;
+    
+    /**
+     * Whether the probe timed out and was left to finish on its own.
+     */
+    private boolean abandoned = false;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param sClassName the L&F class name
+     */
+    public Probe(final String sClassName)
+    {
+      className = sClassName;
+    }
+    
+    
+    /**
+     * Probe the theme.  If the probe was abandoned, its class loader
+     * is discarded here, once nothing is running in it.
+     * 
+     * @return the theme details, or null if the L&F can't be created
+     */
+    public ThemeInfo call()
+    {
+      started = System.currentTimeMillis();
+      try
+      {
+        return probeTheme(className);
+      }
+      finally
+      {
+        synchronized (this)
+        {
+          finished = true;
+          if (abandoned)
+          {
+            discard(className);
+          }
+        }
+      }
+    }
+    
+    
+    /**
+     * Wait for the probe to finish, for up to PROBE_TIMEOUT
+     * milliseconds after it started.
+     * 
+     * @param future the result of the probe
+     * @return the theme details, or null if the L&F can't be created
+     * @throws InterruptedException if this thread is interrupted
+     * @throws ExecutionException if the probe threw an exception
+     * @throws TimeoutException if the probe took too long
+     */
+    public ThemeInfo get(final Future<ThemeInfo> future)
+      throws InterruptedException, ExecutionException, TimeoutException
+    {
+      while (true)
+      {
+        // A probe that has not started yet gets the full time
+        final long start = started;
+        final long wait = (start == 0L) ? PROBE_TIMEOUT :
+          Math.max(0L, start + PROBE_TIMEOUT - System.currentTimeMillis());
+        try
+        {
+          return future.get(wait, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e)
+        {
+          if (start != 0L)
+          {
+            throw e;
+          }
+        }
+      }
+    }
+    
+    
+    /**
+     * Leave the probe to finish on its own.  Its class loader is
+     * discarded when it finishes, or now if it already has.
+     */
+    public synchronized void abandon()
+    {
+      abandoned = true;
+      if (finished)
+      {
+        discard(className);
+      }
+    }
+  }
+  
+  
+  /**
+   * The name of a theme, and whether it is supported on this
+   * platform, read when it is probed.
+   */
+  private static final class ThemeInfo
+  {
+    /**
+     * The name of the L&F.
+     */
+    private final String name;
+    
+    /**
+     * Whether the L&F is supported on this platform.
+     */
+    private final boolean supported;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param sName the name of the L&F
+     * @param bSupported whether the L&F is supported on this platform
+     */
+    public ThemeInfo(final String sName, final boolean bSupported)
+    {
+      name = sName;
+      supported = bSupported;
+    }
+  }
 }
 
 
@@ -0,0 +1,704 @@
+/**
+ * @(#)ThemeScanner.java
+ * 
+ * Created on Oct 18, 2026
+ */
+
+package io.miti.jude.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.swing.LookAndFeel;
+
+/**
+ * Find the look and feel classes in a theme JAR, without loading
+ * any of its classes.
+ * 
+ * Each class file is only read (and decompressed) as far as the
+ * superclass index, after the constant pool, and only the class
+ * and superclass names are decoded.  A public, concrete class is a
+ * look and feel if its chain of superclasses ends at a class of the
+ * application (such as javax.swing.plaf.basic.BasicLookAndFeel)
+ * that extends javax.swing.LookAndFeel.  Classes listed in
+ * META-INF/services/javax.swing.LookAndFeel are also included.
+ * 
+ * The chain is followed within the JAR first.  A chain that leaves
+ * the JAR for a class the application doesn't have is noted, and
+ * resolve() follows it through the library JARs (the JARs with no
+ * themes), since those are on each theme's class path.
+ * 
+ * @author mwallace
+ * @version 1.0
+ */
+final class ThemeScanner
+{
+  /**
+   * The name of the service file listing look and feels.
+   */
+  private static final String SERVICE_FILE =
+    "META-INF/services/" + LookAndFeel.class.getName();
+  
+  /**
+   * The magic number at the start of a class file.
+   */
+  private static final int CLASS_MAGIC = 0xCAFEBABE;
+  
+  /**
+   * The access flag of a public class.
+   */
+  private static final int ACC_PUBLIC = 0x0001;
+  
+  /**
+   * The access flags of an interface, abstract class, annotation,
+   * enum or module.
+   */
+  private static final int ACC_NOT_CONCRETE = 0x0200 | 0x0400 | 0x2000 | 0x4000 | 0x8000;
+  
+  /**
+   * The charset of the names in the constant pool.  Class names
+   * do not use the characters that modified UTF-8 encodes
+   * differently.
+   */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  
+  /**
+   * Whether each class outside the theme JARs is a look and feel,
+   * by class name.
+   */
+  private static final Map<String, Boolean> appClasses =
+    new ConcurrentHashMap<String, Boolean>(20);
+  
+  /**
+   * The classes that the application doesn't have.
+   */
+  private static final Set<String> missing =
+    Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(20));
+  
+  
+  /**
+   * Default constructor.
+   */
+  private ThemeScanner()
+  {
+    super();
+  }
+  
+  
+  /**
+   * Scan a JAR for look and feel classes.
+   * 
+   * @param jar the JAR
+   * @return the index of the JAR
+   * @throws IOException if the JAR can't be read
+   */
+  public static Index scan(final File jar) throws IOException
+  {
+    // The superclass of each class, and the public concrete classes
+    Map<String, String> supers = new HashMap<String, String>(500);
+    Set<String> candidates = new LinkedHashSet<String>(100);
+    Set<String> services = new LinkedHashSet<String>(5);
+    
+    ZipFile zip = new ZipFile(jar);
+    try
+    {
+      byte[] buf = new byte[8192];
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements())
+      {
+        final ZipEntry entry = entries.nextElement();
+        final String name = entry.getName();
+        if (name.equals(SERVICE_FILE))
+        {
+          readServices(zip, entry, services);
+        }
+        else if (name.endsWith(".class") && !name.startsWith("META-INF/"))
+        {
+          HeaderReader reader = new HeaderReader(zip.getInputStream(entry), buf);
+          try
+          {
+            reader.read(supers, candidates);
+          }
+          finally
+          {
+            reader.close();
+          }
+          buf = reader.buf;
+        }
+      }
+    }
+    finally
+    {
+      zip.close();
+    }
+    
+    // Follow the superclasses of each class out of the JAR
+    List<String> lafs = new ArrayList<String>(services);
+    Set<String> bases = new HashSet<String>(20);
+    Map<String, String> links = new HashMap<String, String>(20);
+    Set<String> open = new LinkedHashSet<String>(5);
+    for (String clazz : supers.keySet())
+    {
+      final String outside = getOutsideSuper(clazz, supers);
+      final Boolean isLAF = (outside == null) ? Boolean.FALSE : isAppLookAndFeel(outside);
+      final boolean candidate = candidates.contains(clazz) && !services.contains(clazz);
+      if (isLAF == null)
+      {
+        // The chain continues in another JAR
+        links.put(clazz, outside);
+        if (candidate)
+        {
+          open.add(clazz);
+        }
+      }
+      else if (isLAF.booleanValue())
+      {
+        bases.add(clazz);
+      }
+    }
+    
+    // Keep the candidates in the order found
+    for (String clazz : candidates)
+    {
+      if (!services.contains(clazz) && bases.contains(clazz))
+      {
+        lafs.add(clazz);
+      }
+    }
+    
+    return new Index(lafs, bases, links, open);
+  }
+  
+  
+  /**
+   * Return the look and feel classes of each JAR, following the
+   * chains that leave each JAR through the library JARs: those with
+   * no look and feels of their own.  Finding a look and feel in a
+   * JAR means it is no longer a library, so this repeats until the
+   * set of library JARs stops changing.
+   * 
+   * @param indexes the index of each JAR, in order of JAR name
+   * @return the class names of each JAR, in the same order
+   */
+  public static Map<File, List<String>> resolve(final Map<File, Index> indexes)
+  {
+    Map<File, List<String>> result = new LinkedHashMap<File, List<String>>(indexes.size() * 2);
+    Set<File> libraries = new HashSet<File>(indexes.size() * 2);
+    for (Entry<File, Index> entry : indexes.entrySet())
+    {
+      result.put(entry.getKey(), entry.getValue().getClasses());
+      if (entry.getValue().getClasses().isEmpty())
+      {
+        libraries.add(entry.getKey());
+      }
+    }
+    
+    for (int pass = 0; pass <= indexes.size(); ++pass)
+    {
+      // Find the classes of the library JARs that extend LookAndFeel
+      Set<String> known = new HashSet<String>(20);
+      for (File jar : libraries)
+      {
+        known.addAll(indexes.get(jar).getBases());
+      }
+      boolean grew = !known.isEmpty();
+      while (grew)
+      {
+        grew = false;
+        for (File jar : libraries)
+        {
+          for (Entry<String, String> link : indexes.get(jar).getLinks().entrySet())
+          {
+            if (known.contains(link.getValue()) && known.add(link.getKey()))
+            {
+              grew = true;
+            }
+          }
+        }
+      }
+      
+      // Add the classes whose chain ends at one of them
+      Set<File> nextLibraries = new HashSet<File>(indexes.size() * 2);
+      for (Entry<File, Index> entry : indexes.entrySet())
+      {
+        final Index index = entry.getValue();
+        List<String> lafs = new ArrayList<String>(index.getClasses());
+        for (String clazz : index.getOpen())
+        {
+          if (known.contains(index.getLinks().get(clazz)))
+          {
+            lafs.add(clazz);
+          }
+        }
+        
+        result.put(entry.getKey(), lafs);
+        if (lafs.isEmpty())
+        {
+          nextLibraries.add(entry.getKey());
+        }
+      }
+      
+      if (nextLibraries.equals(libraries))
+      {
+        break;
+      }
+      libraries = nextLibraries;
+    }
+    
+    return result;
+  }
+  
+  
+  /**
+   * Read the class names in a service file.  Anything after a '#'
+   * on a line is a comment.
+   * 
+   * @param zip the JAR
+   * @param entry the service file
+   * @param services the set to add the class names to
+   * @throws IOException if the entry can't be read
+   */
+  private static void readServices(final ZipFile zip,
+                                   final ZipEntry entry,
+                                   final Set<String> services)
+    throws IOException
+  {
+    BufferedReader in = new BufferedReader(
+                          new InputStreamReader(zip.getInputStream(entry), UTF8));
+    try
+    {
+      String str;
+      while ((str = in.readLine()) != null)
+      {
+        final int hash = str.indexOf('#');
+        str = ((hash < 0) ? str : str.substring(0, hash)).trim();
+        if (str.length() > 0)
+        {
+          services.add(str);
+        }
+      }
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+  
+  
+  /**
+   * Follow the superclasses of a class in a JAR to the first one
+   * outside it.
+   * 
+   * @param className the class name
+   * @param supers the superclass of each class in the JAR
+   * @return the first superclass outside the JAR, or null if the
+   *         chain ends in the JAR
+   */
+  private static String getOutsideSuper(final String className,
+                                        final Map<String, String> supers)
+  {
+    String clazz = className;
+    int depth = 0;
+    while (supers.containsKey(clazz))
+    {
+      clazz = supers.get(clazz);
+      if ((clazz == null) || (++depth > supers.size()))
+      {
+        // No superclass, or a loop
+        return null;
+      }
+    }
+    
+    return clazz;
+  }
+  
+  
+  /**
+   * Return whether a class of the application extends LookAndFeel.
+   * The class is looked up without being initialized, and the
+   * answer is kept.
+   * 
+   * @param className the class name
+   * @return whether the class is a look and feel, or null if the
+   *         application doesn't have the class
+   */
+  private static Boolean isAppLookAndFeel(final String className)
+  {
+    if (missing.contains(className))
+    {
+      return null;
+    }
+    
+    Boolean isLAF = appClasses.get(className);
+    if (isLAF == null)
+    {
+      try
+      {
+        Class<?> clazz = Class.forName(className, false, ThemeScanner.class.getClassLoader());
+        isLAF = Boolean.valueOf(LookAndFeel.class.isAssignableFrom(clazz));
+      }
+      catch (ClassNotFoundException e)
+      {
+        missing.add(className);
+        return null;
+      }
+      catch (LinkageError e)
+      {
+        isLAF = Boolean.FALSE;
+      }
+      
+      appClasses.put(className, isLAF);
+    }
+    
+    return isLAF;
+  }
+  
+  
+  /**
+   * The look and feels found in one JAR, and what is needed to
+   * follow the chains that leave it.  This is what the theme cache
+   * keeps for each JAR.
+   */
+  static final class Index
+  {
+    /**
+     * The look and feel classes found within the JAR.
+     */
+    private final List<String> classes;
+    
+    /**
+     * The classes of the JAR, of any access, that extend
+     * LookAndFeel within the JAR.
+     */
+    private final Set<String> bases;
+    
+    /**
+     * The first superclass outside the JAR of each class whose
+     * chain continues in another JAR.
+     */
+    private final Map<String, String> links;
+    
+    /**
+     * The public, concrete classes among the links.
+     */
+    private final Set<String> open;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param pClasses the look and feel classes
+     * @param pBases the classes that extend LookAndFeel
+     * @param pLinks the superclass outside the JAR of each class
+     *               whose chain continues in another JAR
+     * @param pOpen the public, concrete classes among the links
+     */
+    public Index(final List<String> pClasses, final Set<String> pBases,
+                 final Map<String, String> pLinks, final Set<String> pOpen)
+    {
+      classes = pClasses;
+      bases = pBases;
+      links = pLinks;
+      open = pOpen;
+    }
+    
+    
+    /**
+     * Return the look and feel classes found within the JAR.
+     * 
+     * @return the class names
+     */
+    public List<String> getClasses()
+    {
+      return classes;
+    }
+    
+    
+    /**
+     * Return the classes that extend LookAndFeel within the JAR.
+     * 
+     * @return the class names
+     */
+    public Set<String> getBases()
+    {
+      return bases;
+    }
+    
+    
+    /**
+     * Return the first superclass outside the JAR of each class
+     * whose chain continues in another JAR.
+     * 
+     * @return the superclass names, by class name
+     */
+    public Map<String, String> getLinks()
+    {
+      return links;
+    }
+    
+    
+    /**
+     * Return the public, concrete classes whose chain continues
+     * in another JAR.
+     * 
+     * @return the class names
+     */
+    public Set<String> getOpen()
+    {
+      return open;
+    }
+  }
+  
+  
+  /**
+   * Reads the header of a class file from a stream, only as far
+   * as the superclass index.  The bytes are read into a buffer
+   * as they are needed, so the rest of the class file is never
+   * read or decompressed.
+   */
+  private static final class HeaderReader
+  {
+    /**
+     * The class file.
+     */
+    private final InputStream in;
+    
+    /**
+     * The bytes read so far, at the start of the buffer.
+     */
+    private byte[] buf;
+    
+    /**
+     * The number of bytes read.
+     */
+    private int len = 0;
+    
+    
+    /**
+     * Constructor.
+     * 
+     * @param pIn the class file
+     * @param pBuf the buffer to read into, grown if needed
+     */
+    public HeaderReader(final InputStream pIn, final byte[] pBuf)
+    {
+      in = pIn;
+      buf = pBuf;
+    }
+    
+    
+    /**
+     * Read the name, access flags and superclass of the class.
+     * The constant pool is skipped over, noting where each entry
+     * starts, and only the two names needed are decoded.  A class
+     * file that is not valid is ignored.
+     * 
+     * @param supers the map to add the class and its superclass to
+     * @param candidates the set to add the class to, if it is public
+     *                   and concrete
+     * @throws IOException if the class file can't be read
+     */
+    public void read(final Map<String, String> supers,
+                     final Set<String> candidates)
+      throws IOException
+    {
+      if (!fill(10) || (getInt(0) != CLASS_MAGIC))
+      {
+        return;
+      }
+      
+      // Find the start of each constant pool entry
+      final int count = getShort(8);
+      int[] offsets = new int[count];
+      int pos = 10;
+      for (int i = 1; i < count; ++i)
+      {
+        if (!fill(pos + 3))
+        {
+          return;
+        }
+        
+        offsets[i] = pos;
+        final int tag = buf[pos];
+        switch (tag)
+        {
+          case 1:
+            // Utf8
+            pos += 3 + getShort(pos + 1);
+            break;
+          
+          case 5:
+          case 6:
+            // Long and Double take two entries
+            pos += 9;
+            ++i;
+            break;
+          
+          case 7:
+          case 8:
+          case 16:
+          case 19:
+          case 20:
+            // Class, String, MethodType, Module, Package
+            pos += 3;
+            break;
+          
+          case 15:
+            // MethodHandle
+            pos += 4;
+            break;
+          
+          case 3:
+          case 4:
+          case 9:
+          case 10:
+          case 11:
+          case 12:
+          case 17:
+          case 18:
+            // Integer, Float, references, NameAndType, dynamic
+            pos += 5;
+            break;
+          
+          default:
+            return;
+        }
+      }
+      
+      // Read the access flags, this class and the superclass, and
+      // stop there
+      if (!fill(pos + 6))
+      {
+        return;
+      }
+      final int access = getShort(pos);
+      final String name = getClassName(offsets, getShort(pos + 2));
+      final int superIndex = getShort(pos + 4);
+      if ((name == null) || (superIndex == 0))
+      {
+        return;
+      }
+      
+      supers.put(name, getClassName(offsets, superIndex));
+      if (((access & ACC_PUBLIC) != 0) && ((access & ACC_NOT_CONCRETE) == 0))
+      {
+        candidates.add(name);
+      }
+    }
+    
+    
+    /**
+     * Read from the stream until the buffer holds at least the
+     * given number of bytes, growing it if needed.
+     * 
+     * @param end the number of bytes needed
+     * @return whether there are that many bytes
+     * @throws IOException if the stream can't be read
+     */
+    private boolean fill(final int end) throws IOException
+    {
+      if (end > buf.length)
+      {
+        byte[] bigger = new byte[Math.max(end, buf.length * 2)];
+        System.arraycopy(buf, 0, bigger, 0, len);
+        buf = bigger;
+      }
+      
+      while (len < end)
+      {
+        final int count = in.read(buf, len, buf.length - len);
+        if (count < 0)
+        {
+          return false;
+        }
+        len += count;
+      }
+      
+      return true;
+    }
+    
+    
+    /**
+     * Return the unsigned 16-bit value at an offset.
+     * 
+     * @param pos the offset
+     * @return the value
+     */
+    private int getShort(final int pos)
+    {
+      return ((buf[pos] & 0xFF) << 8) | (buf[pos + 1] & 0xFF);
+    }
+    
+    
+    /**
+     * Return the 32-bit value at an offset.
+     * 
+     * @param pos the offset
+     * @return the value
+     */
+    private int getInt(final int pos)
+    {
+      return (getShort(pos) << 16) | getShort(pos + 2);
+    }
+    
+    
+    /**
+     * Return the name of a Class entry in the constant pool, with
+     * '.' between the packages.
+     * 
+     * @param offsets the start of each constant pool entry
+     * @param index the index of the Class entry
+     * @return the class name, or null if the entry is not a class
+     */
+    private String getClassName(final int[] offsets, final int index)
+    {
+      if ((index <= 0) || (index >= offsets.length) || (buf[offsets[index]] != 7))
+      {
+        return null;
+      }
+      
+      final int nameIndex = getShort(offsets[index] + 1);
+      if ((nameIndex <= 0) || (nameIndex >= offsets.length))
+      {
+        return null;
+      }
+      
+      final int utf = offsets[nameIndex];
+      if (buf[utf] != 1)
+      {
+        return null;
+      }
+      
+      return new String(buf, utf + 3, getShort(utf + 1), UTF8).replace('/', '.');
+    }
+    
+    
+    /**
+     * Close the stream.
+     * 
+     * @throws IOException if the stream can't be closed
+     */
+    public void close() throws IOException
+    {
+      in.close();
+    }
+  }
+}